@@ -0,0 +1,21 @@
+package org.example.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar.
+ * Accepts the usual JMH command line (e.g. a benchmark regex, -f, -wi, -i) and always
+ * attaches the GC profiler, so allocation rate (gc.alloc.rate.norm) is reported next to throughput.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.predictionservice.service;
+
+import org.example.predictionservice.PredictionServiceFixture;
+import org.example.predictionservice.client.PayloadDecoder;
+import org.example.predictionservice.client.dto.IncidentData;
+import org.example.predictionservice.client.dto.RouteData;
+import org.example.predictionservice.client.dto.WeatherData;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Prediction-service components wired against in-memory downstream stubs.
+ * Responses are real JSON payloads, so decoding cost is part of the measurement.
+ */
+final class BenchmarkFixtures {
+
+    static final String ROUTE_JSON = "{\"durationMinutes\":24.5,\"distanceKm\":8.1,\"trafficDelayMinutes\":3.2,"
+            + "\"riskLevel\":\"LOW\",\"routeGeometry\":[{\"latitude\":33.5833,\"longitude\":-7.6333},"
+            + "{\"latitude\":33.5500,\"longitude\":-7.6400},{\"latitude\":33.5167,\"longitude\":-7.6500}]}";
+
+    static final String INCIDENTS_JSON = "[{\"id\":1,\"type\":\"ACCIDENT\",\"description\":\"Collision\",\"latitude\":33.57,"
+            + "\"longitude\":-7.62,\"severity\":\"HIGH\",\"timestamp\":\"2024-01-01T08:00:00\"},"
+            + "{\"id\":2,\"type\":\"ROADWORK\",\"description\":\"Travaux\",\"latitude\":33.59,"
+            + "\"longitude\":-7.64,\"severity\":\"LOW\",\"timestamp\":\"2024-01-01T07:30:00\"}]";
+
+    static final String WEATHER_JSON = liveWeatherJson(48);
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * LiveWeatherResponse-shaped payload with an hourly forecast starting at the current hour
+     */
+    static String liveWeatherJson(int hours) {
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        StringBuilder json = new StringBuilder(256 + hours * 160);
+        json.append("{\"current\":{\"temperature\":19.5,\"windSpeed\":12.0,\"windDirection\":240.0,")
+                .append("\"condition\":\"Partly cloudy\",\"timestamp\":\"").append(start)
+                .append("\",\"visibility\":9000.0,\"hasFog\":false,\"fogIntensity\":\"NONE\"},\"hourlyForecast\":[");
+        for (int h = 0; h < hours; h++) {
+            if (h > 0) {
+                json.append(',');
+            }
+            boolean foggy = h % 12 < 2;
+            json.append("{\"timestamp\":\"").append(start.plusHours(h))
+                    .append("\",\"temperature\":").append(15 + h % 10)
+                    .append(",\"windSpeed\":").append(h % 24 == 14 ? 62.0 : 10.0 + h % 7)
+                    .append(",\"visibility\":").append(foggy ? 600.0 : 10000.0)
+                    .append(",\"hasFog\":").append(foggy)
+                    .append(",\"fogIntensity\":\"").append(foggy ? "MODERATE" : "NONE").append("\"}");
+        }
+        json.append("],\"dailyForecast\":[]}");
+        return json.toString();
+    }
+
+    static RouteData route() {
+        try {
+            return PayloadDecoder.decodeRoute(ROUTE_JSON.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static WeatherData weather() {
+        try {
+            return PayloadDecoder.decodeWeather(WEATHER_JSON.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static List<IncidentData> incidents() {
+        try {
+            return PayloadDecoder.decodeIncidents(INCIDENTS_JSON.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static ExecutorService fetchExecutor() {
+        return Executors.newFixedThreadPool(8);
+    }
+
+    /**
+     * PredictionService whose downstream calls are answered in memory.
+     * With cachesEnabled=false the route and weather caches keep nothing, so every call decodes a payload.
+     */
+    static PredictionService predictionService(boolean cachesEnabled, ExecutorService executor) {
+        return PredictionServiceFixture.respondingWith(BenchmarkFixtures::bodyFor)
+                .cacheSize(cachesEnabled ? 1000 : 0)
+                .build(executor);
+    }
+
+    private static String bodyFor(URI uri) {
+        String path = uri.getPath();
+        if (path.startsWith("/api/traffic/route")) {
+            return ROUTE_JSON;
+        }
+        if (path.startsWith("/api/meteo/live")) {
+            return WEATHER_JSON;
+        }
+        if (path.startsWith("/api/incidents")) {
+            return INCIDENTS_JSON;
+        }
+        throw new IllegalArgumentException("No stub for " + uri);
+    }
+}
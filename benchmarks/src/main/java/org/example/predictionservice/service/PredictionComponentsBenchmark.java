@@ -0,0 +1,120 @@
+package org.example.predictionservice.service;
+
+import org.example.predictionservice.client.PayloadDecoder;
+import org.example.predictionservice.client.dto.IncidentData;
+import org.example.predictionservice.client.dto.RouteData;
+import org.example.predictionservice.client.dto.WeatherData;
+import org.example.predictionservice.model.EnrichedPrediction;
+import org.example.predictionservice.model.WeatherImpactAnalysis;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Individual stages of the prediction hot path, measured without downstream calls.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PredictionComponentsBenchmark {
+
+    private static final String[] LOCATIONS = {
+            "Casa Port", "  Technopark ", "Maarif", "Ain Diab", "Gare Casa Voyageurs",
+            "Twin Center, Casablanca", "Sidi Maarouf", "Unknown place 42"
+    };
+
+    private ExecutorService executor;
+    private PredictionService predictionService;
+    private WeatherImpactService weatherImpactService;
+    private RouteData routeData;
+    private WeatherData weatherData;
+    private List<IncidentData> incidents;
+    private byte[] weatherPayload;
+    private String[] forecastHours;
+    private String departureDate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = BenchmarkFixtures.fetchExecutor();
+        predictionService = BenchmarkFixtures.predictionService(true, executor);
+        weatherImpactService = new WeatherImpactService(new ClassPathResource("weather/impact-calibration.properties"));
+        routeData = BenchmarkFixtures.route();
+        weatherData = BenchmarkFixtures.weather();
+        incidents = BenchmarkFixtures.incidents();
+        weatherPayload = BenchmarkFixtures.WEATHER_JSON.getBytes(StandardCharsets.UTF_8);
+        departureDate = LocalDate.now().toString();
+
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        forecastHours = new String[48];
+        for (int h = 0; h < forecastHours.length; h++) {
+            forecastHours[h] = String.format("%02d:00", start.plusHours(h).getHour());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public void normalizeLocation(Blackhole bh) {
+        for (String location : LOCATIONS) {
+            bh.consume(predictionService.normalizeLocation(location));
+        }
+    }
+
+    @Benchmark
+    public void getRealisticDistance(Blackhole bh) {
+        for (int i = 0; i < LOCATIONS.length - 1; i++) {
+            bh.consume(predictionService.getRealisticDistance(LOCATIONS[i], LOCATIONS[i + 1]));
+        }
+    }
+
+    /**
+     * One impact analysis per forecast hour, i.e. a 48-hour scan
+     */
+    @Benchmark
+    public void analyzeImpact48Hours(Blackhole bh) {
+        for (String hour : forecastHours) {
+            WeatherImpactAnalysis analysis = weatherImpactService.analyzeImpact(weatherData, hour);
+            bh.consume(analysis);
+        }
+    }
+
+    /**
+     * Streaming decode of a 48-hour live weather payload
+     */
+    @Benchmark
+    public WeatherData decodeWeather() throws IOException {
+        return PayloadDecoder.decodeWeather(weatherPayload);
+    }
+
+    @Benchmark
+    public EnrichedPrediction buildEnrichedPrediction() {
+        return predictionService.buildEnrichedPrediction("casa port", "technopark", routeData, weatherData, incidents,
+                true, "08:30", departureDate, 31.5, 24.5, 8.1, 7.0, 0.85, "Leave 10 minutes early");
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.predictionservice.service;
+
+import org.example.predictionservice.model.EnrichedPrediction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end analyzeEnrichedTrip with in-memory downstream stubs.
+ * cached=false measures the cold path (every call decodes route and weather payloads).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PredictionPipelineBenchmark {
+
+    @Param({ "true", "false" })
+    public boolean cached;
+
+    private ExecutorService executor;
+    private PredictionService predictionService;
+    private String departureDate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = BenchmarkFixtures.fetchExecutor();
+        predictionService = BenchmarkFixtures.predictionService(cached, executor);
+        departureDate = LocalDate.now().toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public EnrichedPrediction analyzeEnrichedTrip() {
+        return predictionService.analyzeEnrichedTrip("Casa Port", "Technopark", departureDate, "08:30", "DRIVING");
+    }
+}
@@ -1,24 +1,89 @@
 package org.example.meteoservice.client;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.example.meteoservice.model.openmeteo.OpenMeteoResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executor;
+
+/**
+ * Open-Meteo forecasts, cached per rounded lat/lon grid cell.
+ * <p>
+ * A forecast stays fresh until the next upstream model update (every {@code update-interval-minutes},
+ * published {@code update-offset-minutes} past the boundary). After that it is still served for up to
+ * {@code max-stale-minutes} while a single background call refreshes it (stale-while-revalidate).
+ * Concurrent misses on the same cell share one upstream request. Cached responses are shared between
+ * callers and must not be modified.
+ */
 @Component
 public class WeatherClient {
-    
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(WeatherClient.class);
+
     private final RestTemplate restTemplate;
     private final String openMeteoUrl;
-    
-    public WeatherClient(RestTemplate restTemplate, 
-                        @Value("${openmeteo.api.url:https://api.open-meteo.com/v1/forecast}") String openMeteoUrl) {
+    private final double cellDegrees;
+    private final long updateIntervalMs;
+    private final long updateOffsetMs;
+    private final Duration maxStale;
+    private final LoadingCache<GridCell, Forecast> cache;
+
+    public WeatherClient(RestTemplate restTemplate, MeterRegistry meterRegistry,
+                         @Qualifier("forecastRefreshExecutor") Executor refreshExecutor,
+                         @Value("${openmeteo.api.url:https://api.open-meteo.com/v1/forecast}") String openMeteoUrl,
+                         @Value("${openmeteo.cache.cell-degrees:0.05}") double cellDegrees,
+                         @Value("${openmeteo.cache.update-interval-minutes:60}") long updateIntervalMinutes,
+                         @Value("${openmeteo.cache.update-offset-minutes:10}") long updateOffsetMinutes,
+                         @Value("${openmeteo.cache.max-stale-minutes:60}") long maxStaleMinutes,
+                         @Value("${openmeteo.cache.max-size:1000}") long maxSize) {
         this.restTemplate = restTemplate;
         this.openMeteoUrl = openMeteoUrl;
+        this.cellDegrees = cellDegrees;
+        this.updateIntervalMs = Duration.ofMinutes(Math.max(1, updateIntervalMinutes)).toMillis();
+        this.updateOffsetMs = Duration.ofMinutes(updateOffsetMinutes).toMillis();
+        this.maxStale = Duration.ofMinutes(maxStaleMinutes);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new ForecastExpiry())
+                .executor(refreshExecutor)
+                .recordStats()
+                .build(this::fetch);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "openmeteo-forecast");
     }
-    
+
+    /**
+     * Forecast for the grid cell containing the given point
+     */
     public OpenMeteoResponse getWeatherData(double latitude, double longitude) {
+        GridCell cell = cell(latitude, longitude);
+        Forecast forecast = cache.get(cell);
+        if (Instant.now().isAfter(forecast.freshUntil())) {
+            // Serve the stale forecast; at most one refresh per cell is in flight
+            cache.refresh(cell);
+        }
+        return forecast.response();
+    }
+
+    private GridCell cell(double latitude, double longitude) {
+        return new GridCell(Math.round(latitude / cellDegrees), Math.round(longitude / cellDegrees));
+    }
+
+    private Forecast fetch(GridCell cell) {
+        // Query the cell centre, rounded so the URL does not carry floating point noise
+        double latitude = Math.round(cell.latIndex() * cellDegrees * 10000) / 10000.0;
+        double longitude = Math.round(cell.lonIndex() * cellDegrees * 10000) / 10000.0;
+        log.debug("Fetching Open-Meteo forecast for cell ({}, {})", latitude, longitude);
         String url = UriComponentsBuilder.fromHttpUrl(openMeteoUrl)
                 .queryParam("latitude", latitude)
                 .queryParam("longitude", longitude)
@@ -28,7 +93,50 @@ public class WeatherClient {
                 .queryParam("timezone", "auto")
                 .build()
                 .toUriString();
-        
-        return restTemplate.getForObject(url, OpenMeteoResponse.class);
+
+        OpenMeteoResponse response = restTemplate.getForObject(url, OpenMeteoResponse.class);
+        if (response == null) {
+            throw new RestClientException("Empty Open-Meteo response for " + url);
+        }
+        Instant freshUntil = nextModelUpdate(Instant.now());
+        return new Forecast(response, freshUntil, freshUntil.plus(maxStale));
+    }
+
+    /**
+     * First upstream model update after the given time
+     */
+    private Instant nextModelUpdate(Instant time) {
+        long slot = Math.floorDiv(time.toEpochMilli() - updateOffsetMs, updateIntervalMs);
+        return Instant.ofEpochMilli((slot + 1) * updateIntervalMs + updateOffsetMs);
+    }
+
+    /**
+     * Grid cell index, i.e. coordinates divided by the cell size and rounded
+     */
+    record GridCell(long latIndex, long lonIndex) {
+    }
+
+    /**
+     * Cached forecast: served as is until freshUntil, served while refreshing until expiresAt
+     */
+    record Forecast(OpenMeteoResponse response, Instant freshUntil, Instant expiresAt) {
+    }
+
+    private static final class ForecastExpiry implements Expiry<GridCell, Forecast> {
+
+        @Override
+        public long expireAfterCreate(GridCell cell, Forecast forecast, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), forecast.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(GridCell cell, Forecast forecast, long currentTime, long currentDuration) {
+            return expireAfterCreate(cell, forecast, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(GridCell cell, Forecast forecast, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -1,14 +1,57 @@
 package org.example.meteoservice.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+import java.util.concurrent.ThreadPoolExecutor;
+
 @Configuration
 public class RestTemplateConfig {
-    
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(RestTemplateConfig.class);
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(RestTemplateBuilder builder,
+                                     @Value("${openmeteo.api.timeout-ms:5000}") long timeoutMs) {
+        // Bounded so a slow Open-Meteo call cannot hold a request or refresh thread indefinitely
+        return builder
+                .setConnectTimeout(Duration.ofMillis(Math.min(timeoutMs, 2000)))
+                .setReadTimeout(Duration.ofMillis(timeoutMs))
+                .build();
+    }
+
+    /**
+     * Small pool refreshing stale forecasts in the background.
+     * When saturated the refresh is dropped and counted, never run on the request thread: the cell keeps
+     * serving its stale forecast until it expires (max-stale-minutes) and is then fetched on read.
+     */
+    @Bean(name = "forecastRefreshExecutor")
+    public ThreadPoolTaskExecutor forecastRefreshExecutor(MeterRegistry meterRegistry,
+                                                          @Value("${openmeteo.cache.refresh-threads:2}") int threads) {
+        Counter rejected = Counter.builder("meteo.forecast.refresh.rejected")
+                .description("Forecast refreshes dropped because the refresh pool was saturated")
+                .register(meterRegistry);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("forecast-refresh-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy() {
+            @Override
+            public void rejectedExecution(Runnable task, ThreadPoolExecutor pool) {
+                rejected.increment();
+                log.warn("Forecast refresh pool saturated ({} queued), refresh dropped", pool.getQueue().size());
+            }
+        });
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
     }
 }
@@ -23,6 +23,16 @@ public class Meteo {
     @Column(name = "weather_condition", nullable = false)
     private String weatherCondition;
     
+    // Location (Open-Meteo grid point) and time of a live observation; null for manual updates
+    @Column(name = "latitude")
+    private Double latitude;
+    
+    @Column(name = "longitude")
+    private Double longitude;
+    
+    @Column(name = "observed_at")
+    private LocalDateTime observedAt;
+    
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
@@ -89,6 +99,30 @@ public class Meteo {
         this.weatherCondition = weatherCondition;
     }
     
+    public Double getLatitude() {
+        return latitude;
+    }
+    
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+    
+    public Double getLongitude() {
+        return longitude;
+    }
+    
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+    
+    public LocalDateTime getObservedAt() {
+        return observedAt;
+    }
+    
+    public void setObservedAt(LocalDateTime observedAt) {
+        this.observedAt = observedAt;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
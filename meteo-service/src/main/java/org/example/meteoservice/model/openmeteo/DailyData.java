@@ -1,38 +1,58 @@
 package org.example.meteoservice.model.openmeteo;
 
-import com.fasterxml.jackson.annotation.JsonProperty;
-import java.util.List;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
 
+import java.io.IOException;
+
+/**
+ * Daily series as parallel primitive columns of equal length (see {@link OpenMeteoColumns}):
+ * time in local epoch seconds of the day's start, NaN for missing values.
+ */
+@JsonDeserialize(using = DailyData.Deserializer.class)
 public class DailyData {
     
-    @JsonProperty("time")
-    private List<String> time;
-    
-    @JsonProperty("temperature_2m_max")
-    private List<Double> temperature2mMax;
-    
-    @JsonProperty("temperature_2m_min")
-    private List<Double> temperature2mMin;
-    
-    @JsonProperty("precipitation_sum")
-    private List<Double> precipitationSum;
-    
-    @JsonProperty("weathercode")
-    private List<Integer> weathercode;
+    private final long[] time;
+    private final double[] temperature2mMax;
+    private final double[] temperature2mMin;
+    private final double[] precipitationSum;
+    private final int[] weathercode;
 
-    // Getters and Setters
-    public List<String> getTime() { return time; }
-    public void setTime(List<String> time) { this.time = time; }
+    public DailyData(long[] time, double[] temperature2mMax, double[] temperature2mMin, double[] precipitationSum,
+                     int[] weathercode) {
+        this.time = time;
+        this.temperature2mMax = temperature2mMax;
+        this.temperature2mMin = temperature2mMin;
+        this.precipitationSum = precipitationSum;
+        this.weathercode = weathercode;
+    }
+
+    public int size() { return time.length; }
+    
+    public long[] getTime() { return time; }
     
-    public List<Double> getTemperature2mMax() { return temperature2mMax; }
-    public void setTemperature2mMax(List<Double> temperature2mMax) { this.temperature2mMax = temperature2mMax; }
+    public double[] getTemperature2mMax() { return temperature2mMax; }
     
-    public List<Double> getTemperature2mMin() { return temperature2mMin; }
-    public void setTemperature2mMin(List<Double> temperature2mMin) { this.temperature2mMin = temperature2mMin; }
+    public double[] getTemperature2mMin() { return temperature2mMin; }
     
-    public List<Double> getPrecipitationSum() { return precipitationSum; }
-    public void setPrecipitationSum(List<Double> precipitationSum) { this.precipitationSum = precipitationSum; }
+    public double[] getPrecipitationSum() { return precipitationSum; }
     
-    public List<Integer> getWeathercode() { return weathercode; }
-    public void setWeathercode(List<Integer> weathercode) { this.weathercode = weathercode; }
+    public int[] getWeathercode() { return weathercode; }
+
+    public static class Deserializer extends StdDeserializer<DailyData> {
+
+        public Deserializer() {
+            super(DailyData.class);
+        }
+
+        @Override
+        public DailyData deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            OpenMeteoColumns columns = OpenMeteoColumns.read(p, ctxt);
+            return new DailyData(columns.time(), columns.doubles("temperature_2m_max"),
+                    columns.doubles("temperature_2m_min"), columns.doubles("precipitation_sum"),
+                    columns.ints("weathercode"));
+        }
+    }
 }
@@ -1,38 +1,56 @@
 package org.example.meteoservice.model.openmeteo;
 
-import com.fasterxml.jackson.annotation.JsonProperty;
-import java.util.List;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
 
+import java.io.IOException;
+
+/**
+ * Hourly series as parallel primitive columns of equal length (see {@link OpenMeteoColumns}):
+ * time in local epoch seconds, NaN for missing values, {@link OpenMeteoColumns#NO_CODE} for missing codes.
+ */
+@JsonDeserialize(using = HourlyData.Deserializer.class)
 public class HourlyData {
     
-    @JsonProperty("time")
-    private List<String> time;
-    
-    @JsonProperty("temperature_2m")
-    private List<Double> temperature2m;
-    
-    @JsonProperty("windspeed_10m")
-    private List<Double> windspeed10m;
-    
-    @JsonProperty("visibility")
-    private List<Double> visibility;
-    
-    @JsonProperty("weathercode")
-    private List<Integer> weathercode;
+    private final long[] time;
+    private final double[] temperature2m;
+    private final double[] windspeed10m;
+    private final double[] visibility;
+    private final int[] weathercode;
 
-    // Getters and Setters
-    public List<String> getTime() { return time; }
-    public void setTime(List<String> time) { this.time = time; }
+    public HourlyData(long[] time, double[] temperature2m, double[] windspeed10m, double[] visibility, int[] weathercode) {
+        this.time = time;
+        this.temperature2m = temperature2m;
+        this.windspeed10m = windspeed10m;
+        this.visibility = visibility;
+        this.weathercode = weathercode;
+    }
+
+    public int size() { return time.length; }
+    
+    public long[] getTime() { return time; }
     
-    public List<Double> getTemperature2m() { return temperature2m; }
-    public void setTemperature2m(List<Double> temperature2m) { this.temperature2m = temperature2m; }
+    public double[] getTemperature2m() { return temperature2m; }
     
-    public List<Double> getWindspeed10m() { return windspeed10m; }
-    public void setWindspeed10m(List<Double> windspeed10m) { this.windspeed10m = windspeed10m; }
+    public double[] getWindspeed10m() { return windspeed10m; }
     
-    public List<Double> getVisibility() { return visibility; }
-    public void setVisibility(List<Double> visibility) { this.visibility = visibility; }
+    public double[] getVisibility() { return visibility; }
     
-    public List<Integer> getWeathercode() { return weathercode; }
-    public void setWeathercode(List<Integer> weathercode) { this.weathercode = weathercode; }
+    public int[] getWeathercode() { return weathercode; }
+
+    public static class Deserializer extends StdDeserializer<HourlyData> {
+
+        public Deserializer() {
+            super(HourlyData.class);
+        }
+
+        @Override
+        public HourlyData deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            OpenMeteoColumns columns = OpenMeteoColumns.read(p, ctxt);
+            return new HourlyData(columns.time(), columns.doubles("temperature_2m"), columns.doubles("windspeed_10m"),
+                    columns.doubles("visibility"), columns.ints("weathercode"));
+        }
+    }
 }
@@ -0,0 +1,151 @@
+package org.example.meteoservice.model.openmeteo;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parallel arrays of an Open-Meteo "hourly" or "daily" block, decoded straight from the parser into
+ * primitive columns.
+ * <p>
+ * The "time" column becomes epoch seconds of the local time reported by Open-Meteo (no zone
+ * conversion), and every other array a double column where null is NaN. Columns are read back
+ * with the length of the time column, padded with NaN (or {@link #NO_CODE} for codes) when shorter
+ * or missing.
+ */
+public final class OpenMeteoColumns {
+
+    /**
+     * Weather code of an hour or day without one
+     */
+    public static final int NO_CODE = -1;
+
+    /**
+     * Time that could not be parsed
+     */
+    public static final long NO_TIME = Long.MIN_VALUE;
+
+    private static final long SECONDS_PER_DAY = 86400;
+
+    private final Map<String, double[]> values = new HashMap<>();
+    private long[] time = new long[0];
+
+    private OpenMeteoColumns() {
+    }
+
+    static OpenMeteoColumns read(JsonParser p, DeserializationContext ctxt) throws IOException {
+        OpenMeteoColumns columns = new OpenMeteoColumns();
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = p.nextToken();
+        }
+        for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+            String name = p.currentName();
+            if (p.nextToken() != JsonToken.START_ARRAY) {
+                p.skipChildren();
+            } else if ("time".equals(name)) {
+                columns.time = readTimes(p);
+            } else {
+                columns.values.put(name, readNumbers(p));
+            }
+        }
+        if (token != JsonToken.END_OBJECT) {
+            ctxt.reportWrongTokenException(OpenMeteoColumns.class, JsonToken.END_OBJECT, "Expected Open-Meteo series object");
+        }
+        return columns;
+    }
+
+    long[] time() {
+        return time;
+    }
+
+    double[] doubles(String name) {
+        double[] column = values.get(name);
+        if (column != null && column.length == time.length) {
+            return column;
+        }
+        double[] resized = new double[time.length];
+        Arrays.fill(resized, Double.NaN);
+        if (column != null) {
+            System.arraycopy(column, 0, resized, 0, Math.min(column.length, resized.length));
+        }
+        return resized;
+    }
+
+    int[] ints(String name) {
+        double[] column = values.get(name);
+        int[] codes = new int[time.length];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = column != null && i < column.length && !Double.isNaN(column[i]) ? (int) column[i] : NO_CODE;
+        }
+        return codes;
+    }
+
+    private static double[] readNumbers(JsonParser p) throws IOException {
+        double[] buffer = new double[192];
+        int size = 0;
+        JsonToken token;
+        while ((token = p.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (size == buffer.length) {
+                buffer = Arrays.copyOf(buffer, size * 2);
+            }
+            buffer[size++] = token.isNumeric() ? p.getDoubleValue() : Double.NaN;
+            p.skipChildren();
+        }
+        return size == buffer.length ? buffer : Arrays.copyOf(buffer, size);
+    }
+
+    private static long[] readTimes(JsonParser p) throws IOException {
+        long[] buffer = new long[192];
+        int size = 0;
+        JsonToken token;
+        while ((token = p.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (size == buffer.length) {
+                buffer = Arrays.copyOf(buffer, size * 2);
+            }
+            if (token == JsonToken.VALUE_STRING) {
+                buffer[size++] = parseLocalTime(p.getText());
+            } else if (token == JsonToken.VALUE_NUMBER_INT) {
+                // timeformat=unixtime
+                buffer[size++] = p.getLongValue();
+            } else {
+                buffer[size++] = NO_TIME;
+                p.skipChildren();
+            }
+        }
+        return size == buffer.length ? buffer : Arrays.copyOf(buffer, size);
+    }
+
+    /**
+     * Epoch seconds of "yyyy-MM-dd", "yyyy-MM-ddTHH:mm" or "yyyy-MM-ddTHH:mm:ss", read as UTC
+     */
+    static long parseLocalTime(String text) {
+        try {
+            if (text.length() < 10 || text.charAt(4) != '-' || text.charAt(7) != '-') {
+                return NO_TIME;
+            }
+            long seconds = LocalDate.of(digits(text, 0, 4), digits(text, 5, 7), digits(text, 8, 10)).toEpochDay()
+                    * SECONDS_PER_DAY;
+            if (text.length() >= 16 && text.charAt(10) == 'T' && text.charAt(13) == ':') {
+                seconds += digits(text, 11, 13) * 3600L + digits(text, 14, 16) * 60L;
+                if (text.length() >= 19 && text.charAt(16) == ':') {
+                    seconds += digits(text, 17, 19);
+                }
+            }
+            return seconds;
+        } catch (DateTimeException | NumberFormatException e) {
+            return NO_TIME;
+        }
+    }
+
+    private static int digits(String text, int start, int end) {
+        return Integer.parseInt(text, start, end, 10);
+    }
+}
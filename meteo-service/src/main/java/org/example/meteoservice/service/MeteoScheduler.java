@@ -46,6 +46,8 @@ public class MeteoScheduler {
             weatherData.put("condition", condition);
             weatherData.put("timestamp", LocalDateTime.now().toString());
             weatherData.put("location", "Casablanca");
+            weatherData.put("latitude", LAT);
+            weatherData.put("longitude", LON);
 
             System.out.println("Sending weather update: " + weatherData);
             meteoProducer.sendWeatherUpdate(weatherData);
@@ -5,6 +5,9 @@ import org.example.meteoservice.model.MeteoRequest;
 import org.example.meteoservice.model.MeteoResponse;
 import org.example.meteoservice.model.LiveWeatherResponse;
 import org.example.meteoservice.model.FogAnalysis;
+import org.example.meteoservice.model.openmeteo.DailyData;
+import org.example.meteoservice.model.openmeteo.HourlyData;
+import org.example.meteoservice.model.openmeteo.OpenMeteoColumns;
 import org.example.meteoservice.model.openmeteo.OpenMeteoResponse;
 import org.example.meteoservice.repository.MeteoRepository;
 import org.example.meteoservice.client.WeatherClient;
@@ -14,6 +17,7 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
@@ -29,6 +33,9 @@ public class MeteoService {
     @Autowired
     private WeatherClient weatherClient;
     
+    @Autowired
+    private ObservationWriter observationWriter;
+    
     @Value("${weather.default.latitude:35.0}")
     private double defaultLatitude;
     
@@ -117,24 +124,29 @@ public class MeteoService {
             
             liveWeather.setCurrent(current);
             
-            // Save current weather to database
-            saveCurrentWeatherToDatabase(current);
+            // Persist the observation in the background (write-behind), never on the read path
+            recordObservation(response, current);
         }
         
         // Map hourly forecast (48 hours)
-        if (response.getHourly() != null && response.getHourly().getTime() != null) {
+        HourlyData hourlyData = response.getHourly();
+        if (hourlyData != null) {
             List<LiveWeatherResponse.HourlyForecast> hourlyForecasts = new ArrayList<>();
-            int hoursToMap = Math.min(48, response.getHourly().getTime().size());
+            int hoursToMap = Math.min(48, hourlyData.size());
+            long[] times = hourlyData.getTime();
+            double[] temperatures = hourlyData.getTemperature2m();
+            double[] windSpeeds = hourlyData.getWindspeed10m();
+            int[] weatherCodes = hourlyData.getWeathercode();
             
             for (int i = 0; i < hoursToMap; i++) {
                 LiveWeatherResponse.HourlyForecast hourly = new LiveWeatherResponse.HourlyForecast();
-                hourly.setTimestamp(parseDateTime(response.getHourly().getTime().get(i)));
-                hourly.setTemperature(response.getHourly().getTemperature2m().get(i));
-                hourly.setWindSpeed(response.getHourly().getWindspeed10m().get(i));
+                hourly.setTimestamp(toDateTime(times[i]));
+                hourly.setTemperature(temperatures[i]);
+                hourly.setWindSpeed(windSpeeds[i]);
                 
                 // Add visibility and fog data
-                hourly.setVisibility(getVisibilityFromHourly(response.getHourly(), i));
-                int weatherCode = response.getHourly().getWeathercode().get(i);
+                hourly.setVisibility(getVisibilityFromHourly(hourlyData, i));
+                int weatherCode = weatherCodes[i];
                 hourly.setHasFog(isFogCondition(weatherCode));
                 hourly.setFogIntensity(getFogIntensity(weatherCode));
                 
@@ -144,16 +156,21 @@ public class MeteoService {
         }
         
         // Map daily forecast (7 days)
-        if (response.getDaily() != null && response.getDaily().getTime() != null) {
+        DailyData dailyData = response.getDaily();
+        if (dailyData != null) {
             List<LiveWeatherResponse.DailyForecast> dailyForecasts = new ArrayList<>();
-            int daysToMap = Math.min(7, response.getDaily().getTime().size());
+            int daysToMap = Math.min(7, dailyData.size());
+            long[] days = dailyData.getTime();
+            double[] maxTemperatures = dailyData.getTemperature2mMax();
+            double[] minTemperatures = dailyData.getTemperature2mMin();
+            double[] precipitations = dailyData.getPrecipitationSum();
             
             for (int i = 0; i < daysToMap; i++) {
                 LiveWeatherResponse.DailyForecast daily = new LiveWeatherResponse.DailyForecast();
-                daily.setDate(parseDateTime(response.getDaily().getTime().get(i)));
-                daily.setTemperatureMax(response.getDaily().getTemperature2mMax().get(i));
-                daily.setTemperatureMin(response.getDaily().getTemperature2mMin().get(i));
-                daily.setPrecipitation(response.getDaily().getPrecipitationSum().get(i));
+                daily.setDate(toDateTime(days[i]));
+                daily.setTemperatureMax(maxTemperatures[i]);
+                daily.setTemperatureMin(minTemperatures[i]);
+                daily.setPrecipitation(precipitations[i]);
                 
                 // Add fog analysis for the day
                 boolean hasFogExpected = false;
@@ -161,11 +178,12 @@ public class MeteoService {
                 double worstVisibility = Double.MAX_VALUE;
                 
                 // Check hourly data for this day to find fog periods
-                if (response.getHourly() != null && response.getHourly().getWeathercode() != null) {
+                if (response.getHourly() != null) {
+                    int[] hourlyWeatherCodes = response.getHourly().getWeathercode();
                     for (int hour = 0; hour < 24; hour++) {
                         int hourlyIndex = i * 24 + hour;
-                        if (hourlyIndex < response.getHourly().getWeathercode().size()) {
-                            int hourlyWeatherCode = response.getHourly().getWeathercode().get(hourlyIndex);
+                        if (hourlyIndex < hourlyWeatherCodes.length) {
+                            int hourlyWeatherCode = hourlyWeatherCodes[hourlyIndex];
                             if (isFogCondition(hourlyWeatherCode)) {
                                 hasFogExpected = true;
                                 String intensity = getFogIntensity(hourlyWeatherCode);
@@ -194,14 +212,11 @@ public class MeteoService {
         return liveWeather;
     }
     
-    private void saveCurrentWeatherToDatabase(LiveWeatherResponse.CurrentWeather current) {
-        Meteo meteo = new Meteo();
-        meteo.setTemperature(current.getTemperature());
-        meteo.setPrecipitation(0.0); // Current weather doesn't include precipitation
-        meteo.setVent(current.getWindSpeed());
-        meteo.setWeatherCondition(current.getCondition());
-        
-        meteoRepository.save(meteo);
+    private void recordObservation(OpenMeteoResponse response, LiveWeatherResponse.CurrentWeather current) {
+        observationWriter.offer(new ObservationWriter.Observation(
+                new ObservationWriter.Location(response.getLatitude(), response.getLongitude()),
+                current.getTimestamp(), current.getTemperature(), current.getWindSpeed(), current.getCondition(),
+                LocalDateTime.now()));
     }
     
     private String mapWeatherCodeToCondition(int weatherCode) {
@@ -253,6 +268,16 @@ public class MeteoService {
         }
     }
     
+    /**
+     * Local date-time of an Open-Meteo time column entry (current time when it could not be parsed)
+     */
+    private LocalDateTime toDateTime(long localEpochSecond) {
+        if (localEpochSecond == OpenMeteoColumns.NO_TIME) {
+            return LocalDateTime.now();
+        }
+        return LocalDateTime.ofEpochSecond(localEpochSecond, 0, ZoneOffset.UTC);
+    }
+    
     public FogAnalysis getFogAnalysis(double latitude, double longitude, String locationName) {
         OpenMeteoResponse openMeteoResponse = weatherClient.getWeatherData(latitude, longitude);
         return mapToFogAnalysis(openMeteoResponse, latitude, longitude, locationName);
@@ -284,17 +309,20 @@ public class MeteoService {
         }
         
         // Hourly fog forecast
-        if (response.getHourly() != null && response.getHourly().getTime() != null) {
+        HourlyData hourlyData = response.getHourly();
+        if (hourlyData != null) {
             List<FogAnalysis.FogForecast> hourlyFogForecast = new ArrayList<>();
-            int hoursToMap = Math.min(48, response.getHourly().getTime().size());
+            int hoursToMap = Math.min(48, hourlyData.size());
+            long[] times = hourlyData.getTime();
+            int[] weatherCodes = hourlyData.getWeathercode();
             
             for (int i = 0; i < hoursToMap; i++) {
                 FogAnalysis.FogForecast hourlyFog = new FogAnalysis.FogForecast();
-                hourlyFog.setTimestamp(parseDateTime(response.getHourly().getTime().get(i)));
+                hourlyFog.setTimestamp(toDateTime(times[i]));
                 
-                int weatherCode = response.getHourly().getWeathercode().get(i);
+                int weatherCode = weatherCodes[i];
                 boolean hasFog = isFogCondition(weatherCode);
-                double visibility = getVisibilityFromHourly(response.getHourly(), i);
+                double visibility = getVisibilityFromHourly(hourlyData, i);
                 
                 hourlyFog.setHasFog(hasFog);
                 hourlyFog.setFogIntensity(getFogIntensity(weatherCode));
@@ -308,13 +336,14 @@ public class MeteoService {
         }
         
         // Daily fog summary
-        if (response.getDaily() != null && response.getDaily().getTime() != null) {
+        if (response.getDaily() != null) {
             List<FogAnalysis.DailyFogSummary> dailyFogSummary = new ArrayList<>();
-            int daysToMap = Math.min(7, response.getDaily().getTime().size());
+            int daysToMap = Math.min(7, response.getDaily().size());
+            long[] days = response.getDaily().getTime();
             
             for (int i = 0; i < daysToMap; i++) {
                 FogAnalysis.DailyFogSummary dailyFog = new FogAnalysis.DailyFogSummary();
-                dailyFog.setDate(parseDateTime(response.getDaily().getTime().get(i)));
+                dailyFog.setDate(toDateTime(days[i]));
                 
                 // Check for fog in daily weather codes
                 List<Integer> fogHours = new ArrayList<>();
@@ -323,11 +352,12 @@ public class MeteoService {
                 boolean hasFogExpected = false;
                 
                 // Analyze hourly data for this day to find fog periods
-                if (response.getHourly() != null && response.getHourly().getWeathercode() != null) {
+                if (response.getHourly() != null) {
+                    int[] hourlyWeatherCodes = response.getHourly().getWeathercode();
                     for (int hour = 0; hour < 24; hour++) {
                         int hourlyIndex = i * 24 + hour;
-                        if (hourlyIndex < response.getHourly().getWeathercode().size()) {
-                            int hourlyWeatherCode = response.getHourly().getWeathercode().get(hourlyIndex);
+                        if (hourlyIndex < hourlyWeatherCodes.length) {
+                            int hourlyWeatherCode = hourlyWeatherCodes[hourlyIndex];
                             if (isFogCondition(hourlyWeatherCode)) {
                                 hasFogExpected = true;
                                 fogHours.add(hour);
@@ -387,9 +417,9 @@ public class MeteoService {
         }
     }
     
-    private double getVisibilityFromHourly(org.example.meteoservice.model.openmeteo.HourlyData hourly, int index) {
-        if (hourly.getVisibility() != null && hourly.getVisibility().size() > index) {
-            return hourly.getVisibility().get(index);
+    private double getVisibilityFromHourly(HourlyData hourly, int index) {
+        if (hourly != null && hourly.size() > index && !Double.isNaN(hourly.getVisibility()[index])) {
+            return hourly.getVisibility()[index];
         }
         return 10000; // Default excellent visibility in meters
     }
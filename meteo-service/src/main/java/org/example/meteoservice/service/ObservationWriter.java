@@ -0,0 +1,174 @@
+package org.example.meteoservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind persistence of live weather observations into the meteo table.
+ * <p>
+ * Readers only offer observations to a bounded buffer; a scheduled writer drains it every
+ * {@code flush-ms}, keeps one observation per location and observation time, skips those already
+ * written, and inserts the rest with JDBC batches in one transaction, so a failed write inserts nothing
+ * and can be retried whole. When the buffer is full new observations are dropped and counted rather
+ * than blocking the caller. The buffer is flushed on shutdown.
+ */
+@Component
+public class ObservationWriter {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(ObservationWriter.class);
+
+    private static final String INSERT_SQL = "INSERT INTO meteo (temperature, precipitation, vent, weather_condition, "
+            + "latitude, longitude, observed_at, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Bound on the per-location memory of written observations
+    private static final int MAX_TRACKED_LOCATIONS = 10000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final BlockingQueue<Observation> buffer;
+    // Latest observation time written per location, to skip repeats of an unchanged observation
+    private final Map<Location, LocalDateTime> lastWritten = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Counter dropped;
+    private final Counter written;
+
+    public ObservationWriter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+                             @Value("${meteo.observations.buffer-capacity:1000}") int bufferCapacity,
+                             @Value("${meteo.observations.batch-size:100}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.dropped = Counter.builder("meteo.observations.dropped")
+                .description("Observations rejected because the write-behind buffer was full")
+                .register(meterRegistry);
+        this.written = Counter.builder("meteo.observations.written")
+                .description("Observations inserted into the meteo table")
+                .register(meterRegistry);
+        meterRegistry.gauge("meteo.observations.buffered", buffer, BlockingQueue::size);
+    }
+
+    /**
+     * Buffer an observation for writing; never blocks. Returns false when it was dropped.
+     */
+    public boolean offer(Observation observation) {
+        if (observation.observedAt() != null
+                && observation.observedAt().equals(lastWritten.get(observation.location()))) {
+            return true;
+        }
+        if (!buffer.offer(observation)) {
+            dropped.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Write the buffered observations; returns the number of rows inserted
+     */
+    @Scheduled(fixedDelayString = "${meteo.observations.flush-ms:5000}")
+    public int flush() {
+        flushLock.lock();
+        try {
+            int inserted = 0;
+            List<Observation> drained = new ArrayList<>();
+            while (buffer.drainTo(drained, batchSize * 10) > 0) {
+                try {
+                    inserted += write(drained);
+                } catch (Exception e) {
+                    // Put back what fits and retry at the next flush
+                    log.warn("Could not write {} weather observations: {}", drained.size(), e.getMessage());
+                    for (Observation observation : drained) {
+                        if (!buffer.offer(observation)) {
+                            dropped.increment();
+                        }
+                    }
+                    break;
+                }
+                drained.clear();
+            }
+            return inserted;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        int inserted = flush();
+        log.info("Flushed {} buffered weather observations on shutdown", inserted);
+    }
+
+    private int write(List<Observation> observations) {
+        // One row per location and observation time, the last one offered wins
+        Map<ObservationKey, Observation> distinct = new LinkedHashMap<>();
+        for (Observation observation : observations) {
+            LocalDateTime writtenAt = lastWritten.get(observation.location());
+            if (observation.observedAt() == null || !observation.observedAt().equals(writtenAt)) {
+                distinct.put(new ObservationKey(observation.location(), observation.observedAt()), observation);
+            }
+        }
+        if (distinct.isEmpty()) {
+            return 0;
+        }
+
+        List<Observation> rows = new ArrayList<>(distinct.values());
+        // All batches commit together: a failure in a later batch must not leave the earlier ones written
+        // while the whole list is put back for the next flush
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, rows, batchSize, (ps, observation) -> {
+            ps.setDouble(1, observation.temperature());
+            ps.setDouble(2, 0.0); // Current weather doesn't include precipitation
+            ps.setDouble(3, observation.windSpeed());
+            ps.setString(4, observation.condition());
+            ps.setDouble(5, observation.location().latitude());
+            ps.setDouble(6, observation.location().longitude());
+            ps.setTimestamp(7, observation.observedAt() != null ? Timestamp.valueOf(observation.observedAt()) : null);
+            ps.setTimestamp(8, Timestamp.valueOf(observation.receivedAt()));
+        }));
+
+        if (lastWritten.size() > MAX_TRACKED_LOCATIONS) {
+            lastWritten.clear();
+        }
+        for (Observation row : rows) {
+            if (row.observedAt() != null) {
+                lastWritten.merge(row.location(), row.observedAt(), (a, b) -> a.isAfter(b) ? a : b);
+            }
+        }
+        written.increment(rows.size());
+        return rows.size();
+    }
+
+    /**
+     * Observation location, i.e. the Open-Meteo grid point it was reported for
+     */
+    public record Location(double latitude, double longitude) {
+    }
+
+    /**
+     * A live observation as reported by Open-Meteo, with the time it was received
+     */
+    public record Observation(Location location, LocalDateTime observedAt, double temperature, double windSpeed,
+                              String condition, LocalDateTime receivedAt) {
+    }
+
+    private record ObservationKey(Location location, LocalDateTime observedAt) {
+    }
+}
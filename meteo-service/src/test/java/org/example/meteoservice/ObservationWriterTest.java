@@ -0,0 +1,100 @@
+package org.example.meteoservice;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.meteoservice.service.ObservationWriter;
+import org.example.meteoservice.service.ObservationWriter.Location;
+import org.example.meteoservice.service.ObservationWriter.Observation;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ObservationWriterTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final ObservationWriter writer = new ObservationWriter(jdbcTemplate, new TransactionTemplate(transactionManager),
+            new SimpleMeterRegistry(), 3, 100);
+
+    private final Location casablanca = new Location(33.55, -7.6);
+    private final Location sefrou = new Location(33.85, -4.9);
+    private final LocalDateTime t0 = LocalDateTime.of(2024, 1, 2, 8, 0);
+
+    private Observation observation(Location location, LocalDateTime observedAt) {
+        return new Observation(location, observedAt, 14.0, 12.0, "Clear", LocalDateTime.now());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDuplicateObservationsAreWrittenOnce() {
+        // Given the same observation reported by two requests, and another location
+        writer.offer(observation(casablanca, t0));
+        writer.offer(observation(casablanca, t0));
+        writer.offer(observation(sefrou, t0));
+
+        // When the buffer is flushed
+        int inserted = writer.flush();
+
+        // Then one row per location and observation time is inserted in a single batch
+        assertEquals(2, inserted);
+        ArgumentCaptor<Collection<Observation>> rows = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), rows.capture(), eq(100),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(2, rows.getValue().size());
+
+        // And an observation already written is not written again
+        writer.offer(observation(casablanca, t0));
+        assertEquals(0, writer.flush());
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    public void testFullBufferDropsInsteadOfBlocking() {
+        // Given a buffer of three observations that is full
+        for (int i = 0; i < 3; i++) {
+            assertTrue(writer.offer(observation(casablanca, t0.plusMinutes(15L * i))));
+        }
+
+        // When one more observation arrives
+        boolean accepted = writer.offer(observation(casablanca, t0.plusHours(1)));
+
+        // Then it is rejected immediately, and the buffered ones are still written
+        assertFalse(accepted);
+        assertEquals(3, writer.flush());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFailedWriteIsRolledBackAndRetried() {
+        // Given a write that fails part-way
+        writer.offer(observation(casablanca, t0));
+        writer.offer(observation(sefrou, t0));
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"))
+                .thenReturn(new int[][]{{1, 1}});
+
+        // When the buffer is flushed
+        assertEquals(0, writer.flush());
+
+        // Then nothing is committed, and the next flush writes both observations once
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        assertEquals(2, writer.flush());
+        verify(transactionManager).commit(any());
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.meteoservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.meteoservice.model.openmeteo.DailyData;
+import org.example.meteoservice.model.openmeteo.HourlyData;
+import org.example.meteoservice.model.openmeteo.OpenMeteoColumns;
+import org.example.meteoservice.model.openmeteo.OpenMeteoResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OpenMeteoResponseTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testSeriesAreDecodedIntoPrimitiveColumns() throws Exception {
+        // Given an Open-Meteo payload with a null visibility, a short weathercode series and an extra series
+        String json = """
+                {"latitude":33.56,"longitude":-7.6,"utc_offset_seconds":3600,
+                 "current_weather":{"temperature":14.2,"windspeed":11.5,"winddirection":270,"weathercode":45,"time":"2024-01-02T08:00"},
+                 "hourly":{"time":["2024-01-02T08:00","2024-01-02T09:00","2024-01-02T10:00"],
+                           "temperature_2m":[14.2,15.0,16.1],"windspeed_10m":[11.5,12,13],
+                           "visibility":[400.0,null,24140.0],"weathercode":[45,3],"precipitation":[0,0,0]},
+                 "daily":{"time":["2024-01-02"],"temperature_2m_max":[19.4],"temperature_2m_min":[9.1],
+                          "precipitation_sum":[0.0],"weathercode":[45]}}
+                """;
+
+        // When it is decoded
+        OpenMeteoResponse response = objectMapper.readValue(json, OpenMeteoResponse.class);
+
+        // Then every series is a column as long as the time column, with gaps marked
+        HourlyData hourly = response.getHourly();
+        assertEquals(3, hourly.size());
+        assertEquals(LocalDateTime.of(2024, 1, 2, 9, 0).toEpochSecond(ZoneOffset.UTC), hourly.getTime()[1]);
+        assertArrayEquals(new double[]{14.2, 15.0, 16.1}, hourly.getTemperature2m());
+        assertEquals(400.0, hourly.getVisibility()[0]);
+        assertTrue(Double.isNaN(hourly.getVisibility()[1]));
+        assertArrayEquals(new int[]{45, 3, OpenMeteoColumns.NO_CODE}, hourly.getWeathercode());
+
+        DailyData daily = response.getDaily();
+        assertEquals(1, daily.size());
+        assertEquals(LocalDateTime.of(2024, 1, 2, 0, 0).toEpochSecond(ZoneOffset.UTC), daily.getTime()[0]);
+        assertEquals(19.4, daily.getTemperature2mMax()[0]);
+        assertEquals(45, response.getCurrentWeather().getWeathercode());
+    }
+}
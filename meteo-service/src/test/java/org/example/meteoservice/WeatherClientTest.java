@@ -0,0 +1,73 @@
+package org.example.meteoservice;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.meteoservice.client.WeatherClient;
+import org.example.meteoservice.model.openmeteo.OpenMeteoResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class WeatherClientTest {
+
+    private final RestTemplate restTemplate = mock(RestTemplate.class);
+    private final WeatherClient weatherClient = new WeatherClient(restTemplate, new SimpleMeterRegistry(), Runnable::run,
+            "https://api.open-meteo.com/v1/forecast", 0.05, 60, 10, 60, 100);
+
+    @Test
+    public void testNearbyPointsShareOneCachedForecast() {
+        // Given
+        OpenMeteoResponse response = new OpenMeteoResponse();
+        when(restTemplate.getForObject(anyString(), eq(OpenMeteoResponse.class))).thenReturn(response);
+
+        // When two points of the same grid cell are requested, then a point in another cell
+        OpenMeteoResponse first = weatherClient.getWeatherData(33.5731, -7.5898);
+        OpenMeteoResponse second = weatherClient.getWeatherData(33.5702, -7.5911);
+        weatherClient.getWeatherData(33.8424, -4.8775);
+
+        // Then the cell is fetched once, at its centre
+        assertSame(response, first);
+        assertSame(first, second);
+        verify(restTemplate, times(1)).getForObject(contains("latitude=33.55&longitude=-7.6"), eq(OpenMeteoResponse.class));
+        verify(restTemplate, times(2)).getForObject(anyString(), eq(OpenMeteoResponse.class));
+    }
+
+    @Test
+    public void testConcurrentMissesCollapseIntoOneRequest() throws Exception {
+        // Given a slow upstream
+        when(restTemplate.getForObject(anyString(), eq(OpenMeteoResponse.class))).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return new OpenMeteoResponse();
+        });
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When four requests for the same cell arrive together
+        List<Future<OpenMeteoResponse>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(callers.submit(() -> {
+                start.await();
+                return weatherClient.getWeatherData(33.5731, -7.5898);
+            }));
+        }
+        start.countDown();
+
+        // Then they all get the same forecast from a single upstream call
+        OpenMeteoResponse forecast = results.get(0).get();
+        for (Future<OpenMeteoResponse> result : results) {
+            assertSame(forecast, result.get());
+        }
+        verify(restTemplate, times(1)).getForObject(anyString(), eq(OpenMeteoResponse.class));
+        callers.shutdown();
+    }
+}
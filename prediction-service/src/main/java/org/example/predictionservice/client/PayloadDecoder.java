@@ -0,0 +1,283 @@
+package org.example.predictionservice.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.example.predictionservice.client.dto.GeoPoint;
+import org.example.predictionservice.client.dto.IncidentData;
+import org.example.predictionservice.client.dto.RouteData;
+import org.example.predictionservice.client.dto.WeatherConditions;
+import org.example.predictionservice.client.dto.WeatherData;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Decodes downstream payloads with Jackson's streaming parser straight into the client records.
+ * Only the fields used by the predictor are read; everything else (alternatives, daily forecast,
+ * incident descriptions, ...) is skipped without being materialized.
+ */
+public final class PayloadDecoder {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private PayloadDecoder() {
+    }
+
+    /**
+     * TRAFFIC-SERVICE route, or null when the payload has no duration (e.g. an error payload)
+     */
+    public static RouteData decodeRoute(InputStream body) throws IOException {
+        try (JsonParser parser = JSON.createParser(body)) {
+            return readRoute(parser);
+        }
+    }
+
+    public static RouteData decodeRoute(byte[] body) throws IOException {
+        try (JsonParser parser = JSON.createParser(body)) {
+            return readRoute(parser);
+        }
+    }
+
+    /**
+     * METEO-SERVICE live weather (LiveWeatherResponse), or null when the payload is not an object
+     */
+    public static WeatherData decodeWeather(InputStream body) throws IOException {
+        try (JsonParser parser = JSON.createParser(body)) {
+            return readWeather(parser);
+        }
+    }
+
+    public static WeatherData decodeWeather(byte[] body) throws IOException {
+        try (JsonParser parser = JSON.createParser(body)) {
+            return readWeather(parser);
+        }
+    }
+
+    /**
+     * INCIDENT-SERVICE incident list, or null when the payload is not an array
+     */
+    public static List<IncidentData> decodeIncidents(InputStream body) throws IOException {
+        try (JsonParser parser = JSON.createParser(body)) {
+            return readIncidents(parser);
+        }
+    }
+
+    public static List<IncidentData> decodeIncidents(byte[] body) throws IOException {
+        try (JsonParser parser = JSON.createParser(body)) {
+            return readIncidents(parser);
+        }
+    }
+
+    private static RouteData readRoute(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+        double duration = Double.NaN;
+        double distance = 10.0;
+        double delay = 0;
+        String risk = null;
+        List<GeoPoint> geometry = Collections.emptyList();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "durationMinutes" -> duration = readDouble(parser, Double.NaN);
+                case "distanceKm" -> distance = readDouble(parser, distance);
+                case "trafficDelayMinutes" -> delay = readDouble(parser, delay);
+                case "riskLevel" -> risk = readString(parser);
+                case "routeGeometry" -> geometry = readGeometry(parser);
+                default -> parser.skipChildren();
+            }
+        }
+        return Double.isNaN(duration) ? null : new RouteData(duration, distance, delay, risk, geometry);
+    }
+
+    private static List<GeoPoint> readGeometry(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return Collections.emptyList();
+        }
+        List<GeoPoint> points = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            double latitude = Double.NaN;
+            double longitude = Double.NaN;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "latitude" -> latitude = readDouble(parser, Double.NaN);
+                    case "longitude" -> longitude = readDouble(parser, Double.NaN);
+                    default -> parser.skipChildren();
+                }
+            }
+            if (!Double.isNaN(latitude) && !Double.isNaN(longitude)) {
+                points.add(new GeoPoint(latitude, longitude));
+            }
+        }
+        return points;
+    }
+
+    private static WeatherData readWeather(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+        WeatherConditions current = null;
+        List<WeatherConditions> hourly = Collections.emptyList();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "current" -> current = readConditions(parser);
+                case "hourlyForecast" -> hourly = readHourly(parser);
+                default -> parser.skipChildren();
+            }
+        }
+        return new WeatherData(current, hourly);
+    }
+
+    private static List<WeatherConditions> readHourly(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return Collections.emptyList();
+        }
+        List<WeatherConditions> hourly = new ArrayList<>(48);
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            WeatherConditions conditions = readConditions(parser);
+            if (conditions != null) {
+                hourly.add(conditions);
+            }
+        }
+        return hourly;
+    }
+
+    private static WeatherConditions readConditions(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        LocalDateTime timestamp = null;
+        String condition = WeatherConditions.DEFAULT_CONDITION;
+        double temperature = WeatherConditions.DEFAULT_TEMPERATURE;
+        double visibility = WeatherConditions.DEFAULT_VISIBILITY;
+        double windSpeed = WeatherConditions.DEFAULT_WIND_SPEED;
+        boolean hasFog = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "timestamp" -> timestamp = readTimestamp(parser);
+                case "condition" -> {
+                    String value = readString(parser);
+                    if (value != null) {
+                        condition = value;
+                    }
+                }
+                case "temperature" -> temperature = readDouble(parser, temperature);
+                case "visibility" -> visibility = readDouble(parser, visibility);
+                case "windSpeed" -> windSpeed = readDouble(parser, windSpeed);
+                case "hasFog" -> hasFog = parser.currentToken() == JsonToken.VALUE_TRUE;
+                default -> parser.skipChildren();
+            }
+        }
+        return new WeatherConditions(timestamp, condition, temperature, visibility, windSpeed, hasFog);
+    }
+
+    private static List<IncidentData> readIncidents(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            return null;
+        }
+        List<IncidentData> incidents = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            String severity = null;
+            double latitude = Double.NaN;
+            double longitude = Double.NaN;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "severity" -> severity = readString(parser);
+                    case "latitude" -> latitude = readDouble(parser, Double.NaN);
+                    case "longitude" -> longitude = readDouble(parser, Double.NaN);
+                    default -> parser.skipChildren();
+                }
+            }
+            incidents.add(new IncidentData(severity, latitude, longitude));
+        }
+        return incidents;
+    }
+
+    /**
+     * ISO string or Jackson array form [year, month, day, hour, minute(, second)]; null when unreadable
+     */
+    private static LocalDateTime readTimestamp(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_STRING) {
+            try {
+                return LocalDateTime.parse(parser.getText());
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+        if (parser.currentToken() == JsonToken.START_ARRAY) {
+            int[] parts = new int[6];
+            int count = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (count < parts.length && parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+                    parts[count] = parser.getIntValue();
+                }
+                count++;
+            }
+            if (count < 5) {
+                return null;
+            }
+            try {
+                return LocalDateTime.of(parts[0], parts[1], parts[2], parts[3], parts[4], parts[5]);
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    private static double readDouble(JsonParser parser, double defaultValue) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return parser.getDoubleValue();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            try {
+                return Double.parseDouble(parser.getText().trim());
+            } catch (NumberFormatException e) {
+                return defaultValue;
+            }
+        }
+        parser.skipChildren();
+        return defaultValue;
+    }
+
+    private static String readString(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token != null && token.isScalarValue()) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return null;
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.predictionservice.client.dto;
+
+/**
+ * Route geometry point, serialized as {latitude, longitude} like the traffic-service payload
+ */
+public record GeoPoint(double latitude, double longitude) {
+}
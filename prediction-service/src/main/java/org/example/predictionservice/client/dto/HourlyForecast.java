@@ -0,0 +1,138 @@
+package org.example.predictionservice.client.dto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hourly forecast indexed by epoch hour, built once per fetched forecast.
+ * <p>
+ * Slot i holds the forecast for hour {@code firstEpochHour + i} in parallel primitive arrays, and conditions are
+ * stored as codes into a small table of distinct condition names. Looking an hour up is an array access.
+ * Epoch hours count hours since 1970-01-01T00:00 of the forecast's local time (no zone conversion), so
+ * forecast timestamps and departure times compare directly.
+ */
+public final class HourlyForecast {
+
+    public static final HourlyForecast EMPTY = new HourlyForecast(0, new short[0], new double[0], new double[0],
+            new double[0], new boolean[0], new String[0]);
+
+    /**
+     * Returned by {@link #slot} when there is no forecast for the hour
+     */
+    public static final int NO_FORECAST = -1;
+
+    // Longest span indexed; Open-Meteo forecasts cover at most 16 days
+    private static final int MAX_HOURS = 24 * 31;
+
+    private final long firstEpochHour;
+    // Condition code per slot, -1 when the hour has no forecast
+    private final short[] conditionCodes;
+    private final double[] temperature;
+    private final double[] visibility;
+    private final double[] windSpeed;
+    private final boolean[] fog;
+    private final String[] conditions;
+
+    private HourlyForecast(long firstEpochHour, short[] conditionCodes, double[] temperature, double[] visibility,
+                           double[] windSpeed, boolean[] fog, String[] conditions) {
+        this.firstEpochHour = firstEpochHour;
+        this.conditionCodes = conditionCodes;
+        this.temperature = temperature;
+        this.visibility = visibility;
+        this.windSpeed = windSpeed;
+        this.fog = fog;
+        this.conditions = conditions;
+    }
+
+    /**
+     * Index the given forecast; entries without a timestamp are skipped, and for a repeated hour the first
+     * entry wins
+     */
+    public static HourlyForecast of(List<WeatherConditions> hourly) {
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (WeatherConditions h : hourly) {
+            if (h.timestamp() != null) {
+                long hour = epochHour(h.timestamp());
+                first = Math.min(first, hour);
+                last = Math.max(last, hour);
+            }
+        }
+        if (first > last) {
+            return EMPTY;
+        }
+
+        int size = (int) Math.min(last - first + 1, MAX_HOURS);
+        short[] codes = new short[size];
+        Arrays.fill(codes, (short) NO_FORECAST);
+        double[] temperature = new double[size];
+        double[] visibility = new double[size];
+        double[] windSpeed = new double[size];
+        boolean[] fog = new boolean[size];
+        Map<String, Short> codeByCondition = new HashMap<>();
+        List<String> conditions = new ArrayList<>();
+        for (WeatherConditions h : hourly) {
+            if (h.timestamp() == null) {
+                continue;
+            }
+            long slot = epochHour(h.timestamp()) - first;
+            if (slot >= size || codes[(int) slot] != NO_FORECAST) {
+                continue;
+            }
+            int i = (int) slot;
+            codes[i] = codeByCondition.computeIfAbsent(h.condition(), c -> {
+                conditions.add(c);
+                return (short) (conditions.size() - 1);
+            });
+            temperature[i] = h.temperature();
+            visibility[i] = h.visibility();
+            windSpeed[i] = h.windSpeed();
+            fog[i] = h.hasFog();
+        }
+        return new HourlyForecast(first, codes, temperature, visibility, windSpeed, fog, conditions.toArray(new String[0]));
+    }
+
+    public static long epochHour(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 3600);
+    }
+
+    /**
+     * Slot of the forecast for an epoch hour, or NO_FORECAST
+     */
+    public int slot(long epochHour) {
+        long slot = epochHour - firstEpochHour;
+        if (slot < 0 || slot >= conditionCodes.length || conditionCodes[(int) slot] == NO_FORECAST) {
+            return NO_FORECAST;
+        }
+        return (int) slot;
+    }
+
+    public String condition(int slot) {
+        return conditions[conditionCodes[slot]];
+    }
+
+    public int conditionCode(int slot) {
+        return conditionCodes[slot];
+    }
+
+    public double temperature(int slot) {
+        return temperature[slot];
+    }
+
+    public double visibility(int slot) {
+        return visibility[slot];
+    }
+
+    public double windSpeed(int slot) {
+        return windSpeed[slot];
+    }
+
+    public boolean hasFog(int slot) {
+        return fog[slot];
+    }
+}
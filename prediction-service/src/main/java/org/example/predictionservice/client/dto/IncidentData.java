@@ -0,0 +1,14 @@
+package org.example.predictionservice.client.dto;
+
+/**
+ * Incident returned by INCIDENT-SERVICE, reduced to the fields the predictor uses
+ */
+public record IncidentData(String severity, double latitude, double longitude) {
+
+    /**
+     * HIGH (incident-service) or MAJOR (TomTom) severity
+     */
+    public boolean isMajor() {
+        return "HIGH".equalsIgnoreCase(severity) || "MAJOR".equalsIgnoreCase(severity);
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.predictionservice.client.dto;
+
+import java.util.List;
+
+/**
+ * Route returned by TRAFFIC-SERVICE (main route only; alternatives are not used by the predictor)
+ *
+ * @param routeGeometry route points, or an empty list when unknown
+ */
+public record RouteData(double durationMinutes, double distanceKm, double trafficDelayMinutes,
+                        String riskLevel, List<GeoPoint> routeGeometry) {
+}
@@ -0,0 +1,18 @@
+package org.example.predictionservice.client.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Weather at one point in time. Missing fields hold the predictor's defaults
+ * (condition "Clear", 20 °C, 10 km visibility, no wind, no fog).
+ *
+ * @param timestamp forecast hour, or null for current conditions without a timestamp
+ */
+public record WeatherConditions(LocalDateTime timestamp, String condition, double temperature,
+                                double visibility, double windSpeed, boolean hasFog) {
+
+    public static final String DEFAULT_CONDITION = "Clear";
+    public static final double DEFAULT_TEMPERATURE = 20.0;
+    public static final double DEFAULT_VISIBILITY = 10000;
+    public static final double DEFAULT_WIND_SPEED = 0;
+}
@@ -0,0 +1,17 @@
+package org.example.predictionservice.client.dto;
+
+import java.util.List;
+
+/**
+ * Live weather returned by METEO-SERVICE: current conditions and the hourly forecast
+ *
+ * @param current        current conditions, or null when missing
+ * @param hourlyForecast hourly forecast in payload order, or an empty list
+ * @param hourlyIndex    the same forecast indexed by epoch hour
+ */
+public record WeatherData(WeatherConditions current, List<WeatherConditions> hourlyForecast, HourlyForecast hourlyIndex) {
+
+    public WeatherData(WeatherConditions current, List<WeatherConditions> hourlyForecast) {
+        this(current, hourlyForecast, HourlyForecast.of(hourlyForecast));
+    }
+}
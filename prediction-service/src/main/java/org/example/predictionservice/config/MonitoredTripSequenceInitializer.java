@@ -0,0 +1,58 @@
+package org.example.predictionservice.config;
+
+import jakarta.annotation.PostConstruct;
+import org.example.predictionservice.entity.MonitoredTrip;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the monitored_trip id sequence above the ids already in the table.
+ * <p>
+ * Monitored trip ids used to be IDENTITY columns. When Hibernate creates the monitored_trip_seq table on an
+ * existing database it starts at 1, and the first inserts would collide with existing trips. At startup,
+ * after the schema update, the sequence is raised so that the next pooled block starts above MAX(id); the
+ * update is conditional, so instances starting together agree. On a database with a native sequence, which
+ * cannot be read portably, startup fails if trips exist, until the sequence is restarted by hand.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class MonitoredTripSequenceInitializer {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(MonitoredTripSequenceInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MonitoredTripSequenceInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignSequence() {
+        long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM monitored_trip", Long.class);
+        // The pooled optimizer hands out the block ending at the value it reads
+        long required = maxId + MonitoredTrip.ID_ALLOCATION_SIZE + 1;
+
+        Long nextValue;
+        try {
+            nextValue = jdbcTemplate.query("SELECT next_val FROM monitored_trip_seq",
+                    rs -> rs.next() ? rs.getLong(1) : null);
+        } catch (BadSqlGrammarException e) {
+            if (maxId > 0) {
+                throw new IllegalStateException("monitored_trip holds ids up to " + maxId
+                        + " but monitored_trip_seq is not a table; restart the sequence with " + required
+                        + " or more before starting", e);
+            }
+            return;
+        }
+
+        if (nextValue == null) {
+            jdbcTemplate.update("INSERT INTO monitored_trip_seq (next_val) VALUES (?)", required);
+            log.info("Initialized monitored_trip_seq at {} (max trip id {})", required, maxId);
+        } else if (nextValue < required) {
+            jdbcTemplate.update("UPDATE monitored_trip_seq SET next_val = ? WHERE next_val < ?", required, required);
+            log.info("Raised monitored_trip_seq from {} to {} (max trip id {})", nextValue, required, maxId);
+        }
+    }
+}
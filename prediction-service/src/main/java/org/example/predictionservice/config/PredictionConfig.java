@@ -1,15 +1,100 @@
 package org.example.predictionservice.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 public class PredictionConfig {
+    /**
+     * General-purpose load-balanced client, without the fan-out deadline
+     */
     @Bean
+    @Primary
     @LoadBalanced
     public RestTemplate restTemplate() {
         return new RestTemplate();
     }
+
+    /**
+     * Client of the parallel fetch stage (route, weather, incidents) only: its read timeout matches the
+     * per-call deadline so a slow downstream releases its fetch thread
+     */
+    @Bean(name = "fetchRestTemplate")
+    @LoadBalanced
+    public RestTemplate fetchRestTemplate(RestTemplateBuilder builder,
+                                          @Value("${prediction.fetch.call-timeout-ms:2500}") long callTimeoutMs) {
+        return builder
+                .setConnectTimeout(Duration.ofMillis(Math.min(callTimeoutMs, 1000)))
+                .setReadTimeout(Duration.ofMillis(callTimeoutMs))
+                .build();
+    }
+
+    @Bean
+    @LoadBalanced
+    public WebClient.Builder loadBalancedWebClientBuilder() {
+        return WebClient.builder();
+    }
+
+    /**
+     * Bounded pool used to fetch route, weather and incidents in parallel.
+     * When saturated the caller thread runs the fetch itself (sequential behaviour).
+     */
+    @Bean(name = "predictionFetchExecutor")
+    public ThreadPoolTaskExecutor predictionFetchExecutor(
+            @Value("${prediction.fetch.pool-size:32}") int poolSize,
+            @Value("${prediction.fetch.queue-capacity:256}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("prediction-fetch-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pool running the trip monitoring shards of a cycle concurrently (one task per shard)
+     */
+    @Bean(name = "tripMonitorExecutor")
+    public ThreadPoolTaskExecutor tripMonitorExecutor(@Value("${prediction.monitoring.shards:8}") int shards) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(shards);
+        executor.setMaxPoolSize(shards);
+        executor.setQueueCapacity(shards);
+        executor.setThreadNamePrefix("trip-monitor-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Listener containers of the trip event listeners: each instance has its own consumer group and only cares
+     * about events from now on, so offsets are never committed (a group without offsets is dropped by the broker
+     * once its instance stops) and a new group starts at the latest offset
+     */
+    @Bean(name = "tripEventsListenerFactory")
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> tripEventsListenerFactory(
+            ConsumerFactory<Object, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        // Listeners never acknowledge, so nothing is committed
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
 }
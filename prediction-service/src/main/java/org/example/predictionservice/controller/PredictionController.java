@@ -1,14 +1,22 @@
 package org.example.predictionservice.controller;
 
 
+import org.example.predictionservice.model.BatchPredictionResult;
+import org.example.predictionservice.model.DepartureWindow;
 import org.example.predictionservice.model.EnrichedPrediction;
 import org.example.predictionservice.model.Prediction;
 import org.example.predictionservice.model.PredictionRequest;
+import org.example.predictionservice.service.PredictionCoalescer;
 import org.example.predictionservice.service.PredictionService;
+import org.example.predictionservice.service.ReactivePredictionService;
 import org.example.predictionservice.service.TripMonitoringService;
 import org.example.predictionservice.entity.MonitoredTrip;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/predictions")
@@ -16,22 +24,53 @@ public class PredictionController {
 
     private final PredictionService predictionService;
     private final TripMonitoringService tripMonitoringService;
+    private final ReactivePredictionService reactivePredictionService;
+    private final PredictionCoalescer coalescer;
+    private final boolean reactivePipeline;
+    private final int batchMaxSize;
 
-    public PredictionController(PredictionService predictionService, TripMonitoringService tripMonitoringService) {
+    public PredictionController(PredictionService predictionService, TripMonitoringService tripMonitoringService,
+                                ReactivePredictionService reactivePredictionService, PredictionCoalescer coalescer,
+                                @Value("${prediction.pipeline:blocking}") String pipeline,
+                                @Value("${prediction.batch.max-size:500}") int batchMaxSize) {
         this.predictionService = predictionService;
         this.tripMonitoringService = tripMonitoringService;
+        this.reactivePredictionService = reactivePredictionService;
+        this.coalescer = coalescer;
+        this.reactivePipeline = "reactive".equalsIgnoreCase(pipeline);
+        this.batchMaxSize = batchMaxSize;
     }
 
+    /**
+     * Blocking pipeline computes on the request thread; reactive pipeline releases it while downstream calls are in flight.
+     * Identical concurrent requests share one computation.
+     */
     @PostMapping("/predict")
-    public EnrichedPrediction predictEnriched(@RequestBody PredictionRequest request) {
-        return predictionService.predictEnriched(request);
+    public Mono<EnrichedPrediction> predictEnriched(@RequestBody PredictionRequest request) {
+        if (reactivePipeline) {
+            return Mono.fromFuture(() -> coalescer.coalesce(request,
+                    () -> reactivePredictionService.predictEnriched(request).toFuture()));
+        }
+        return Mono.just(coalescer.predict(request));
+    }
+
+    /**
+     * Batch prediction for fleet dispatch: one result per trip, in input order
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchPredictionResult>> predictBatch(@RequestBody List<PredictionRequest> requests) {
+        if (requests.size() > batchMaxSize) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(predictionService.predictBatch(requests));
     }
 
     @PostMapping("/monitor")
     public MonitoredTrip monitorTrip(@RequestBody PredictionRequest request) {
         // Using "userId" from request or generating a placeholder
         String userId = "user-" + System.currentTimeMillis();
-        return tripMonitoringService.startMonitoring(request.getOrigin(), request.getDestination(), userId);
+        return tripMonitoringService.startMonitoring(request.getOrigin(), request.getDestination(), userId,
+                request.getDepartureDate(), request.getDepartureTime());
     }
 
     @GetMapping("/status")
@@ -55,12 +94,7 @@ public class PredictionController {
      */
     @PostMapping("/analyze/enriched")
     public ResponseEntity<EnrichedPrediction> analyzeEnrichedTrip(@RequestBody PredictionRequest request) {
-        EnrichedPrediction prediction = predictionService.analyzeEnrichedTrip(
-                request.getOrigin(),
-                request.getDestination(),
-                request.getDepartureDate(),
-                request.getDepartureTime(),
-                (request.getTransportMode() != null ? request.getTransportMode() : "driving"));
+        EnrichedPrediction prediction = coalescer.predict(request);
         return ResponseEntity.ok(prediction);
     }
 
@@ -68,14 +102,40 @@ public class PredictionController {
      * GET endpoint for quick predictions (testing)
      */
     @GetMapping("/quick")
-    public ResponseEntity<EnrichedPrediction> quickPrediction(
+    public Mono<ResponseEntity<EnrichedPrediction>> quickPrediction(
             @RequestParam String origin,
             @RequestParam String destination,
             @RequestParam(required = false) String time,
             @RequestParam(required = false, defaultValue = "driving") String mode) {
 
-        EnrichedPrediction prediction = predictionService.analyzeEnrichedTrip(
-                origin, destination, null, time, mode);
-        return ResponseEntity.ok(prediction);
+        PredictionRequest request = new PredictionRequest(origin, destination, null, time, mode);
+        if (reactivePipeline) {
+            return Mono.fromFuture(() -> coalescer.coalesce(request,
+                            () -> reactivePredictionService.predictEnriched(request).toFuture()))
+                    .map(ResponseEntity::ok);
+        }
+        EnrichedPrediction prediction = coalescer.predict(request);
+        return Mono.just(ResponseEntity.ok(prediction));
+    }
+
+    /**
+     * Best departure time within a window, e.g. every 10 min over the next 3 hours
+     */
+    @GetMapping("/departure-window")
+    public ResponseEntity<DepartureWindow> optimizeDeparture(
+            @RequestParam String origin,
+            @RequestParam String destination,
+            @RequestParam(required = false) String date,
+            @RequestParam(required = false) String start,
+            @RequestParam(required = false, defaultValue = "180") int window,
+            @RequestParam(required = false, defaultValue = "10") int step,
+            @RequestParam(required = false, defaultValue = "driving") String mode) {
+
+        if (step <= 0 || window < 0 || window / step > 288) {
+            return ResponseEntity.badRequest().build();
+        }
+        DepartureWindow result = predictionService.optimizeDeparture(
+                origin, destination, date, start, window, step, mode);
+        return ResponseEntity.ok(result);
     }
 }
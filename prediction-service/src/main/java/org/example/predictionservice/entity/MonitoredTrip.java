@@ -1,15 +1,29 @@
 package org.example.predictionservice.entity;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 
+import java.time.LocalDateTime;
 
+
+// (is_active, id) index: each keyset page of active trips is a range scan
 @Entity
+@Table(indexes = @Index(name = "idx_monitored_trip_active_id", columnList = "is_active, id"))
 public class MonitoredTrip {
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled ids (one sequence call per 50 inserts) keep inserts batchable, unlike IDENTITY.
+    // On MySQL, Hibernate backs the sequence with a monitored_trip_seq table, raised above the existing ids
+    // at startup by MonitoredTripSequenceInitializer.
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "monitored_trip_seq")
+    @SequenceGenerator(name = "monitored_trip_seq", sequenceName = "monitored_trip_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     private String origin;
@@ -17,6 +31,8 @@ public class MonitoredTrip {
     private double originalDuration; // Minutes
     private double lastDuration; // Minutes
     private String userId; // Or deviceId
+    private LocalDateTime departureAt; // Null when the trip is monitored for an immediate departure
+    @Column(name = "is_active")
     private boolean isActive;
 
     public MonitoredTrip() {}
@@ -43,6 +59,8 @@ public class MonitoredTrip {
     public void setLastDuration(double lastDuration) { this.lastDuration = lastDuration; }
     public String getUserId() { return userId; }
     public void setUserId(String userId) { this.userId = userId; }
+    public LocalDateTime getDepartureAt() { return departureAt; }
+    public void setDepartureAt(LocalDateTime departureAt) { this.departureAt = departureAt; }
     public boolean isActive() { return isActive; }
     public void setActive(boolean active) { isActive = active; }
 
@@ -56,6 +74,7 @@ public class MonitoredTrip {
         private double originalDuration;
         private double lastDuration;
         private String userId;
+        private LocalDateTime departureAt;
         private boolean isActive;
 
         public MonitoredTripBuilder origin(String origin) { this.origin = origin; return this; }
@@ -63,6 +82,7 @@ public class MonitoredTrip {
         public MonitoredTripBuilder originalDuration(double originalDuration) { this.originalDuration = originalDuration; return this; }
         public MonitoredTripBuilder lastDuration(double lastDuration) { this.lastDuration = lastDuration; return this; }
         public MonitoredTripBuilder userId(String userId) { this.userId = userId; return this; }
+        public MonitoredTripBuilder departureAt(LocalDateTime departureAt) { this.departureAt = departureAt; return this; }
         public MonitoredTripBuilder isActive(boolean isActive) { this.isActive = isActive; return this; }
 
         public MonitoredTrip build() {
@@ -72,6 +92,7 @@ public class MonitoredTrip {
             trip.setOriginalDuration(originalDuration);
             trip.setLastDuration(lastDuration);
             trip.setUserId(userId);
+            trip.setDepartureAt(departureAt);
             trip.setActive(isActive);
             return trip;
         }
@@ -0,0 +1,27 @@
+package org.example.predictionservice.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+import java.time.Instant;
+
+// Live prediction-service instance taking part in trip monitoring, with its last heartbeat
+@Entity
+public class MonitoringInstance {
+    @Id
+    private String instanceId;
+
+    private Instant lastHeartbeat;
+
+    public MonitoringInstance() {}
+
+    public MonitoringInstance(String instanceId, Instant lastHeartbeat) {
+        this.instanceId = instanceId;
+        this.lastHeartbeat = lastHeartbeat;
+    }
+
+    public String getInstanceId() { return instanceId; }
+    public void setInstanceId(String instanceId) { this.instanceId = instanceId; }
+    public Instant getLastHeartbeat() { return lastHeartbeat; }
+    public void setLastHeartbeat(Instant lastHeartbeat) { this.lastHeartbeat = lastHeartbeat; }
+}
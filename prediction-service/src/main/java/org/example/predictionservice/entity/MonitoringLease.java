@@ -0,0 +1,29 @@
+package org.example.predictionservice.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+import java.time.Instant;
+
+// One row per trip partition (trip id mod partition count); ownerId is null while the partition is free
+@Entity
+public class MonitoringLease {
+    @Id
+    private Integer partitionId;
+
+    private String ownerId;
+    private Instant expiresAt;
+
+    public MonitoringLease() {}
+
+    public MonitoringLease(Integer partitionId) {
+        this.partitionId = partitionId;
+    }
+
+    public Integer getPartitionId() { return partitionId; }
+    public void setPartitionId(Integer partitionId) { this.partitionId = partitionId; }
+    public String getOwnerId() { return ownerId; }
+    public void setOwnerId(String ownerId) { this.ownerId = ownerId; }
+    public Instant getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+}
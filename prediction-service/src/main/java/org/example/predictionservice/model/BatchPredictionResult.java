@@ -0,0 +1,40 @@
+package org.example.predictionservice.model;
+
+
+
+/**
+ * Outcome of one trip in a batch prediction request.
+ * Results keep the input order; a failed trip does not fail the batch.
+ */
+public class BatchPredictionResult {
+    private int index; // Position in the request list
+    private String status; // OK, FAILED
+    private EnrichedPrediction prediction;
+    private String error;
+
+    public BatchPredictionResult() {}
+
+    public BatchPredictionResult(int index, String status, EnrichedPrediction prediction, String error) {
+        this.index = index;
+        this.status = status;
+        this.prediction = prediction;
+        this.error = error;
+    }
+
+    public static BatchPredictionResult ok(int index, EnrichedPrediction prediction) {
+        return new BatchPredictionResult(index, "OK", prediction, null);
+    }
+
+    public static BatchPredictionResult failed(int index, String error) {
+        return new BatchPredictionResult(index, "FAILED", null, error);
+    }
+
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public EnrichedPrediction getPrediction() { return prediction; }
+    public void setPrediction(EnrichedPrediction prediction) { this.prediction = prediction; }
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
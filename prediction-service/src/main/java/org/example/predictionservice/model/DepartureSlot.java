@@ -0,0 +1,35 @@
+package org.example.predictionservice.model;
+
+
+
+/**
+ * One candidate departure time evaluated by the departure-window optimizer.
+ */
+public class DepartureSlot {
+    private String departureTime; // HH:mm
+    private String arrivalTime; // HH:mm
+    private double predictedDuration; // Minutes
+    private boolean isPeakHour;
+    private String weatherImpactLevel; // AUCUN, FAIBLE, MOYEN, ÉLEVÉ
+
+    public DepartureSlot() {}
+
+    public DepartureSlot(String departureTime, String arrivalTime, double predictedDuration, boolean isPeakHour, String weatherImpactLevel) {
+        this.departureTime = departureTime;
+        this.arrivalTime = arrivalTime;
+        this.predictedDuration = predictedDuration;
+        this.isPeakHour = isPeakHour;
+        this.weatherImpactLevel = weatherImpactLevel;
+    }
+
+    public String getDepartureTime() { return departureTime; }
+    public void setDepartureTime(String departureTime) { this.departureTime = departureTime; }
+    public String getArrivalTime() { return arrivalTime; }
+    public void setArrivalTime(String arrivalTime) { this.arrivalTime = arrivalTime; }
+    public double getPredictedDuration() { return predictedDuration; }
+    public void setPredictedDuration(double predictedDuration) { this.predictedDuration = predictedDuration; }
+    public boolean isPeakHour() { return isPeakHour; }
+    public void setPeakHour(boolean peakHour) { isPeakHour = peakHour; }
+    public String getWeatherImpactLevel() { return weatherImpactLevel; }
+    public void setWeatherImpactLevel(String weatherImpactLevel) { this.weatherImpactLevel = weatherImpactLevel; }
+}
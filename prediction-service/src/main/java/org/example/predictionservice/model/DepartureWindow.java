@@ -0,0 +1,45 @@
+package org.example.predictionservice.model;
+
+
+
+import java.util.List;
+
+/**
+ * Duration curve over a departure window and the best slot to leave.
+ */
+public class DepartureWindow {
+    private String origin;
+    private String destination;
+    private String transportMode;
+    private List<DepartureSlot> slots; // In departure order
+    private DepartureSlot bestSlot; // Shortest predicted duration
+    private double minutesSaved; // First slot duration minus best slot duration
+    private List<String> degradedInputs;
+
+    public DepartureWindow() {}
+
+    public DepartureWindow(String origin, String destination, String transportMode, List<DepartureSlot> slots, DepartureSlot bestSlot, double minutesSaved, List<String> degradedInputs) {
+        this.origin = origin;
+        this.destination = destination;
+        this.transportMode = transportMode;
+        this.slots = slots;
+        this.bestSlot = bestSlot;
+        this.minutesSaved = minutesSaved;
+        this.degradedInputs = degradedInputs;
+    }
+
+    public String getOrigin() { return origin; }
+    public void setOrigin(String origin) { this.origin = origin; }
+    public String getDestination() { return destination; }
+    public void setDestination(String destination) { this.destination = destination; }
+    public String getTransportMode() { return transportMode; }
+    public void setTransportMode(String transportMode) { this.transportMode = transportMode; }
+    public List<DepartureSlot> getSlots() { return slots; }
+    public void setSlots(List<DepartureSlot> slots) { this.slots = slots; }
+    public DepartureSlot getBestSlot() { return bestSlot; }
+    public void setBestSlot(DepartureSlot bestSlot) { this.bestSlot = bestSlot; }
+    public double getMinutesSaved() { return minutesSaved; }
+    public void setMinutesSaved(double minutesSaved) { this.minutesSaved = minutesSaved; }
+    public List<String> getDegradedInputs() { return degradedInputs; }
+    public void setDegradedInputs(List<String> degradedInputs) { this.degradedInputs = degradedInputs; }
+}
@@ -2,7 +2,9 @@ package org.example.predictionservice.model;
 
 
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Enriched prediction response with complete analysis data.
@@ -62,6 +64,9 @@ public class EnrichedPrediction {
     private RouteOption recommendedRoute;
     private List<RouteOption> alternativeRoutes;
 
+    // Inputs replaced by a fallback (route, weather, incidents)
+    private List<String> degradedInputs;
+
     public EnrichedPrediction() {}
 
     public EnrichedPrediction(String origin, String destination, String timestamp, double predictedDuration, double baseDuration, double distanceKm, String durationText, String departureTime, String arrivalTime, String riskLevel, int riskScore, ImpactFactors impactFactors, boolean isPeakHour, boolean hasIncidents, String weatherCondition, String trafficCondition, List<String> explanationPoints, String aiRecommendation, Double temperature, Double visibility, Double windSpeed, int incidentCount, String incidentSeverity, double confidenceScore, double recommendationOffset, List<Object> routeGeometry, RouteOption recommendedRoute, List<RouteOption> alternativeRoutes) {
@@ -139,6 +144,8 @@ public class EnrichedPrediction {
     public void setRecommendedRoute(RouteOption recommendedRoute) { this.recommendedRoute = recommendedRoute; }
     public List<RouteOption> getAlternativeRoutes() { return alternativeRoutes; }
     public void setAlternativeRoutes(List<RouteOption> alternativeRoutes) { this.alternativeRoutes = alternativeRoutes; }
+    public List<String> getDegradedInputs() { return degradedInputs; }
+    public void setDegradedInputs(List<String> degradedInputs) { this.degradedInputs = degradedInputs; }
     public void setPredictedDuration(double predictedDuration) { this.predictedDuration = predictedDuration; }
     public void setRiskLevel(String riskLevel) { this.riskLevel = riskLevel; }
     public void setTimestamp(String timestamp) { this.timestamp = timestamp; }
@@ -152,6 +159,22 @@ public class EnrichedPrediction {
     public String getDurationText() { return durationText; }
     public String getAiRecommendation() { return aiRecommendation; }
     public double getConfidenceScore() { return confidenceScore; }
+    /**
+     * Independent copy: lists and nested objects are copied too, so changing the copy leaves this one untouched
+     */
+    public EnrichedPrediction copy() {
+        EnrichedPrediction copy = new EnrichedPrediction(origin, destination, timestamp, predictedDuration, baseDuration,
+                distanceKm, durationText, departureTime, arrivalTime, riskLevel, riskScore,
+                impactFactors != null ? impactFactors.copy() : null, isPeakHour, hasIncidents, weatherCondition,
+                trafficCondition, explanationPoints != null ? new ArrayList<>(explanationPoints) : null, aiRecommendation,
+                temperature, visibility, windSpeed, incidentCount, incidentSeverity, confidenceScore, recommendationOffset,
+                routeGeometry != null ? new ArrayList<>(routeGeometry) : null,
+                recommendedRoute != null ? recommendedRoute.copy() : null,
+                alternativeRoutes != null ? alternativeRoutes.stream().map(RouteOption::copy).collect(Collectors.toList()) : null);
+        copy.degradedInputs = degradedInputs != null ? new ArrayList<>(degradedInputs) : null;
+        return copy;
+    }
+
     // Manual Builder
     public static EnrichedPredictionBuilder builder() {
         return new EnrichedPredictionBuilder();
@@ -188,6 +211,7 @@ public class EnrichedPrediction {
         public EnrichedPredictionBuilder routeGeometry(List<Object> routeGeometry) { instance.routeGeometry = routeGeometry; return this; }
         public EnrichedPredictionBuilder recommendedRoute(RouteOption recommendedRoute) { instance.recommendedRoute = recommendedRoute; return this; }
         public EnrichedPredictionBuilder alternativeRoutes(List<RouteOption> alternativeRoutes) { instance.alternativeRoutes = alternativeRoutes; return this; }
+        public EnrichedPredictionBuilder degradedInputs(List<String> degradedInputs) { instance.degradedInputs = degradedInputs; return this; }
 
         public EnrichedPrediction build() {
             return instance;
@@ -30,6 +30,10 @@ public class ImpactFactors {
     public int getPeakHour() { return peakHour; }
     public void setPeakHour(int peakHour) { this.peakHour = peakHour; }
 
+    public ImpactFactors copy() {
+        return new ImpactFactors(traffic, weather, incidents, peakHour);
+    }
+
     public static ImpactFactorsBuilder builder() {
         return new ImpactFactorsBuilder();
     }
@@ -1,6 +1,7 @@
 package org.example.predictionservice.model;
 
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class RouteOption {
@@ -22,6 +23,11 @@ public class RouteOption {
         this.geometry = geometry;
     }
 
+    public RouteOption copy() {
+        return new RouteOption(durationMinutes, distanceKm, trafficDelayMinutes, description, riskLevel,
+                geometry != null ? new ArrayList<>(geometry) : null);
+    }
+
     public double getDurationMinutes() { return durationMinutes; }
     public void setDurationMinutes(double durationMinutes) { this.durationMinutes = durationMinutes; }
     public double getDistanceKm() { return distanceKm; }
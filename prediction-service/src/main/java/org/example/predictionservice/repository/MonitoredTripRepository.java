@@ -1,9 +1,33 @@
 package org.example.predictionservice.repository;
 
 import org.example.predictionservice.entity.MonitoredTrip;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 import java.util.List;
 
 public interface MonitoredTripRepository extends JpaRepository<MonitoredTrip, Long> {
-    List<MonitoredTrip> findByIsActiveTrue();
+    /**
+     * Keyset page of active trips: the next {@code limit} trips after {@code lastId}, in id order
+     */
+    List<MonitoredTrip> findByIsActiveTrueAndIdGreaterThanOrderByIdAsc(Long lastId, Limit limit);
+
+    long countByIsActiveTrueAndIdGreaterThan(Long lastId);
+
+    /**
+     * Keyset page of the active trips in the given partitions (id mod partitionCount)
+     */
+    @Query("select t from MonitoredTrip t where t.isActive = true and t.id > :lastId"
+            + " and mod(t.id, :partitionCount) in :partitions order by t.id")
+    List<MonitoredTrip> findActivePageInPartitions(@Param("lastId") Long lastId, @Param("partitionCount") long partitionCount,
+                                                   @Param("partitions") Collection<Long> partitions, Pageable page);
+
+    @Query("select count(t) from MonitoredTrip t where t.isActive = true and t.id > :lastId"
+            + " and mod(t.id, :partitionCount) in :partitions")
+    long countActiveInPartitions(@Param("lastId") Long lastId, @Param("partitionCount") long partitionCount,
+                                 @Param("partitions") Collection<Long> partitions);
 }
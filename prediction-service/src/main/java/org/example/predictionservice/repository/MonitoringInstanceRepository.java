@@ -0,0 +1,15 @@
+package org.example.predictionservice.repository;
+
+import org.example.predictionservice.entity.MonitoringInstance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface MonitoringInstanceRepository extends JpaRepository<MonitoringInstance, String> {
+    List<MonitoringInstance> findByLastHeartbeatAfterOrderByInstanceIdAsc(Instant since);
+
+    @Transactional
+    long deleteByLastHeartbeatBefore(Instant before);
+}
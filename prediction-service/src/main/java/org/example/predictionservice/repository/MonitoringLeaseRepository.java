@@ -0,0 +1,54 @@
+package org.example.predictionservice.repository;
+
+import org.example.predictionservice.entity.MonitoringLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface MonitoringLeaseRepository extends JpaRepository<MonitoringLease, Integer> {
+    /**
+     * Partitions leased to owner and not yet expired
+     */
+    @Query("select l.partitionId from MonitoringLease l where l.ownerId = :owner and l.expiresAt > :now"
+            + " and l.partitionId < :partitionCount order by l.partitionId")
+    List<Integer> findOwned(@Param("owner") String owner, @Param("now") Instant now,
+                            @Param("partitionCount") int partitionCount);
+
+    /**
+     * Partitions nobody holds: never leased, released, or whose lease expired
+     */
+    @Query("select l.partitionId from MonitoringLease l where (l.ownerId is null or l.expiresAt <= :now)"
+            + " and l.partitionId < :partitionCount order by l.partitionId")
+    List<Integer> findClaimable(@Param("now") Instant now, @Param("partitionCount") int partitionCount);
+
+    /**
+     * Take a partition if it is still free or already ours; a single conditional update, so two instances
+     * can never both win it. Returns the number of rows updated (0 or 1).
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update MonitoringLease l set l.ownerId = :owner, l.expiresAt = :expiresAt where l.partitionId = :partition"
+            + " and (l.ownerId is null or l.ownerId = :owner or l.expiresAt <= :now)")
+    int claim(@Param("partition") int partition, @Param("owner") String owner,
+              @Param("expiresAt") Instant expiresAt, @Param("now") Instant now);
+
+    /**
+     * Extend the unexpired leases of owner
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update MonitoringLease l set l.expiresAt = :expiresAt where l.ownerId = :owner and l.expiresAt > :now")
+    int renew(@Param("owner") String owner, @Param("expiresAt") Instant expiresAt, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update MonitoringLease l set l.ownerId = null, l.expiresAt = null where l.ownerId = :owner"
+            + " and l.partitionId in :partitions")
+    int release(@Param("owner") String owner, @Param("partitions") Collection<Integer> partitions);
+}
@@ -0,0 +1,151 @@
+package org.example.predictionservice.service;
+
+import org.example.predictionservice.entity.MonitoredTrip;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Monitored corridors with their endpoints, used to find the trips affected by a traffic, incident
+ * or weather event.
+ * <p>
+ * A corridor is the straight segment between the gazetteer coordinates of its origin and destination,
+ * widened by {@code corridor-buffer-km}. An event at a point (with an optional radius, e.g. the area a
+ * weather report covers) marks every corridor within reach as affected; affected corridors are collected
+ * until the monitoring service drains them. Corridors whose endpoints are unknown to the gazetteer cannot
+ * be matched and are only covered by the periodic sweep.
+ */
+@Component
+public class CorridorIndex {
+
+    private static final double KM_PER_DEGREE = 111.32;
+
+    private final LocationGazetteer gazetteer;
+    private final double bufferKm;
+
+    private final Map<Corridor, Entry> corridors = new ConcurrentHashMap<>();
+    // Corridor of every registered trip, including those the gazetteer cannot locate
+    private final Map<Long, Corridor> tripCorridors = new ConcurrentHashMap<>();
+    private final Set<Corridor> affected = ConcurrentHashMap.newKeySet();
+
+    public CorridorIndex(LocationGazetteer gazetteer,
+                         @Value("${prediction.monitoring.events.corridor-buffer-km:2.0}") double bufferKm) {
+        this.gazetteer = gazetteer;
+        this.bufferKm = bufferKm;
+    }
+
+    /**
+     * Normalized corridor of a trip
+     */
+    static Corridor corridorOf(MonitoredTrip trip) {
+        return new Corridor(LocationGazetteer.normalize(trip.getOrigin()), LocationGazetteer.normalize(trip.getDestination()));
+    }
+
+    /**
+     * Register a trip under its corridor; no-op when an endpoint cannot be located
+     */
+    public void add(MonitoredTrip trip) {
+        Corridor corridor = corridorOf(trip);
+        tripCorridors.put(trip.getId(), corridor);
+        Entry entry = corridors.get(corridor);
+        if (entry == null) {
+            int from = gazetteer.lookup(corridor.origin());
+            int to = gazetteer.lookup(corridor.destination());
+            if (from == LocationGazetteer.NOT_FOUND || to == LocationGazetteer.NOT_FOUND) {
+                return;
+            }
+            double[] a = gazetteer.coordinates(from);
+            double[] b = gazetteer.coordinates(to);
+            entry = corridors.computeIfAbsent(corridor, c -> new Entry(a[0], a[1], b[0], b[1], ConcurrentHashMap.newKeySet()));
+        }
+        entry.tripIds().add(trip.getId());
+    }
+
+    /**
+     * Forget trips that are no longer active; called with the trips seen by a complete sweep
+     */
+    public void retainOnly(Set<Long> activeTripIds) {
+        tripCorridors.keySet().retainAll(activeTripIds);
+        corridors.values().removeIf(entry -> {
+            entry.tripIds().retainAll(activeTripIds);
+            return entry.tripIds().isEmpty();
+        });
+    }
+
+    /**
+     * Mark the corridors passing within radiusKm (plus the corridor buffer) of a point as affected.
+     * Returns the number of corridors marked.
+     */
+    public int markAffected(double latitude, double longitude, double radiusKm) {
+        double reach = radiusKm + bufferKm;
+        int marked = 0;
+        for (Map.Entry<Corridor, Entry> corridor : corridors.entrySet()) {
+            if (corridor.getValue().distanceKm(latitude, longitude) <= reach) {
+                affected.add(corridor.getKey());
+                marked++;
+            }
+        }
+        return marked;
+    }
+
+    /**
+     * Corridor of a registered trip, or the trip id itself when the trip is not registered,
+     * so trips can be grouped by corridor without merging unknown ones
+     */
+    public Object corridorKey(long tripId) {
+        Corridor corridor = tripCorridors.get(tripId);
+        return corridor != null ? corridor : tripId;
+    }
+
+    public boolean hasAffected() {
+        return !affected.isEmpty();
+    }
+
+    /**
+     * Ids of the trips on the affected corridors, clearing the affected set
+     */
+    public Set<Long> drainAffectedTrips() {
+        Set<Long> tripIds = new HashSet<>();
+        for (Corridor corridor : affected) {
+            affected.remove(corridor);
+            Entry entry = corridors.get(corridor);
+            if (entry != null) {
+                tripIds.addAll(entry.tripIds());
+            }
+        }
+        return tripIds;
+    }
+
+    public int size() {
+        return corridors.size();
+    }
+
+    /**
+     * Normalized origin/destination pair shared by trips watching the same commute
+     */
+    record Corridor(String origin, String destination) {
+    }
+
+    private record Entry(double fromLat, double fromLon, double toLat, double toLon, Set<Long> tripIds) {
+
+        /**
+         * Distance (km) from a point to the segment, on a local equirectangular projection centred on the point
+         */
+        double distanceKm(double latitude, double longitude) {
+            double cosLat = Math.cos(Math.toRadians(latitude));
+            double ax = (fromLon - longitude) * cosLat * KM_PER_DEGREE;
+            double ay = (fromLat - latitude) * KM_PER_DEGREE;
+            double bx = (toLon - longitude) * cosLat * KM_PER_DEGREE;
+            double by = (toLat - latitude) * KM_PER_DEGREE;
+            double dx = bx - ax;
+            double dy = by - ay;
+            double lengthSquared = dx * dx + dy * dy;
+            double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, -(ax * dx + ay * dy) / lengthSquared));
+            return Math.hypot(ax + t * dx, ay + t * dy);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package org.example.predictionservice.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * All-pairs road distance matrix (km) over the gazetteer ids, built once at startup.
+ * <p>
+ * Known road distances are loaded from a CSV file and kept as entered. Other pairs
+ * get the shortest path over those roads (e.g. racine -> technopark via maarif),
+ * computed with one Dijkstra pass per place over the sparse road graph.
+ * <p>
+ * So {@link #distance} is the graph distance except in two cases, where the road estimate
+ * (haversine x {@value #ROAD_FACTOR}) is returned instead: when no path exists, and when the
+ * shortest path is longer than {@value #MAX_DETOUR} x that estimate (the roads file then lacks
+ * the direct road, and a path through it would overstate the trip). Entered roads are never replaced.
+ * <p>
+ * The matrix is a dense {@code double[n][n]}: 8 * n * n bytes, i.e. 5 KB for the ~25 places shipped,
+ * 80 KB for 100 and 8 MB for 1000. Beyond a few thousand places, compute rows on demand instead.
+ */
+@Component
+public class DistanceMatrix {
+
+    // Road distance is ~30% longer than the straight line
+    private static final double ROAD_FACTOR = 1.3;
+    // A transitive path longer than this multiple of the road estimate is not trusted
+    private static final double MAX_DETOUR = 1.5;
+
+    private final double[][] distances;
+
+    public DistanceMatrix(LocationGazetteer gazetteer,
+                          @Value("${prediction.gazetteer.distances:classpath:gazetteer/distances.csv}") Resource roads) {
+        int n = gazetteer.size();
+
+        List<int[]> edgeEnds = new ArrayList<>();
+        List<Double> edgeKm = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(roads.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split(",");
+                if (parts.length < 3) {
+                    throw new IllegalStateException("Invalid distance line: " + line);
+                }
+                int from = gazetteer.exactId(LocationGazetteer.normalize(parts[0]));
+                int to = gazetteer.exactId(LocationGazetteer.normalize(parts[1]));
+                if (from == LocationGazetteer.NOT_FOUND || to == LocationGazetteer.NOT_FOUND) {
+                    throw new IllegalStateException("Unknown place in distance line: " + line);
+                }
+                edgeEnds.add(new int[] { from, to });
+                edgeKm.add(Double.parseDouble(parts[2].trim()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load road distances from " + roads, e);
+        }
+
+        // Compressed adjacency (both directions)
+        int[] offsets = new int[n + 1];
+        for (int[] ends : edgeEnds) {
+            offsets[ends[0] + 1]++;
+            offsets[ends[1] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] targets = new int[offsets[n]];
+        double[] weights = new double[offsets[n]];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (int e = 0; e < edgeEnds.size(); e++) {
+            int a = edgeEnds.get(e)[0];
+            int b = edgeEnds.get(e)[1];
+            double km = edgeKm.get(e);
+            targets[fill[a]] = b;
+            weights[fill[a]++] = km;
+            targets[fill[b]] = a;
+            weights[fill[b]++] = km;
+        }
+
+        this.distances = new double[n][];
+        int[] heapNodes = new int[offsets[n] + n];
+        double[] heapKeys = new double[offsets[n] + n];
+        for (int src = 0; src < n; src++) {
+            double[] row = shortestPaths(src, n, offsets, targets, weights, heapNodes, heapKeys);
+            double[] from = gazetteer.coordinates(src);
+            for (int dst = 0; dst < n; dst++) {
+                if (dst == src) {
+                    continue;
+                }
+                double[] to = gazetteer.coordinates(dst);
+                double estimate = haversineDistance(from[0], from[1], to[0], to[1]) * ROAD_FACTOR;
+                if (row[dst] > estimate * MAX_DETOUR) {
+                    row[dst] = estimate;
+                }
+            }
+            // Directly entered distances are authoritative
+            for (int k = offsets[src]; k < offsets[src + 1]; k++) {
+                row[targets[k]] = weights[k];
+            }
+            distances[src] = row;
+        }
+    }
+
+    /**
+     * Road distance in km between two gazetteer ids
+     */
+    public double distance(int from, int to) {
+        return distances[from][to];
+    }
+
+    /**
+     * Dijkstra from one source with a lazy binary heap on primitive arrays
+     */
+    private static double[] shortestPaths(int src, int n, int[] offsets, int[] targets, double[] weights,
+                                          int[] heapNodes, double[] heapKeys) {
+        double[] dist = new double[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[src] = 0;
+        int size = 0;
+        heapNodes[size] = src;
+        heapKeys[size++] = 0;
+        while (size > 0) {
+            int node = heapNodes[0];
+            double key = heapKeys[0];
+            size--;
+            siftDown(heapNodes, heapKeys, size, heapNodes[size], heapKeys[size]);
+            if (key > dist[node]) {
+                continue; // stale entry
+            }
+            for (int k = offsets[node]; k < offsets[node + 1]; k++) {
+                double candidate = key + weights[k];
+                int next = targets[k];
+                if (candidate < dist[next]) {
+                    dist[next] = candidate;
+                    siftUp(heapNodes, heapKeys, size++, next, candidate);
+                }
+            }
+        }
+        return dist;
+    }
+
+    private static void siftUp(int[] nodes, double[] keys, int pos, int node, double key) {
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            nodes[pos] = nodes[parent];
+            keys[pos] = keys[parent];
+            pos = parent;
+        }
+        nodes[pos] = node;
+        keys[pos] = key;
+    }
+
+    private static void siftDown(int[] nodes, double[] keys, int size, int node, double key) {
+        if (size == 0) {
+            return;
+        }
+        int pos = 0;
+        while (true) {
+            int child = 2 * pos + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            nodes[pos] = nodes[child];
+            keys[pos] = keys[child];
+            pos = child;
+        }
+        nodes[pos] = node;
+        keys[pos] = key;
+    }
+
+    /**
+     * Haversine formula to calculate straight-line distance (km) between two coordinates
+     */
+    static double haversineDistance(double lat1, double lon1, double lat2, double lon2) {
+        final int R = 6371; // Earth radius in km
+
+        double latDistance = Math.toRadians(lat2 - lat1);
+        double lonDistance = Math.toRadians(lon2 - lon1);
+
+        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                        * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
+
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+
+        return R * c;
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.predictionservice.service;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker and bulkhead for each downstream service (traffic, meteo, incident).
+ * <p>
+ * Breakers open on their sliding-window failure rate or slow-call rate (see resilience4j.* in
+ * application.properties). While open, or when the downstream's bulkhead is full, calls fail
+ * immediately and the caller falls back without waiting for a timeout.
+ * State is exposed through the actuator circuitbreakers, bulkheads and health endpoints.
+ */
+@Component
+public class DownstreamResilience {
+
+    public static final String TRAFFIC = "traffic";
+    public static final String METEO = "meteo";
+    public static final String INCIDENT = "incident";
+
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final BulkheadRegistry bulkheads;
+
+    public DownstreamResilience(CircuitBreakerRegistry circuitBreakers, BulkheadRegistry bulkheads) {
+        this.circuitBreakers = circuitBreakers;
+        this.bulkheads = bulkheads;
+    }
+
+    /**
+     * Run a blocking downstream call through the downstream's breaker and bulkhead.
+     * Throws CallNotPermittedException or BulkheadFullException when the call is rejected.
+     */
+    public <T> T call(String downstream, Supplier<T> call) {
+        CircuitBreaker circuitBreaker = circuitBreakers.circuitBreaker(downstream);
+        Bulkhead bulkhead = bulkheads.bulkhead(downstream);
+        return CircuitBreaker.decorateSupplier(circuitBreaker, Bulkhead.decorateSupplier(bulkhead, call)).get();
+    }
+
+    /**
+     * Reactive equivalent of {@link #call}; rejected calls signal an error on subscription
+     */
+    public <T> Mono<T> protect(String downstream, Mono<T> call) {
+        return call.transformDeferred(BulkheadOperator.of(bulkheads.bulkhead(downstream)))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreakers.circuitBreaker(downstream)));
+    }
+}
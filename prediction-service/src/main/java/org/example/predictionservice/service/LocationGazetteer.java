@@ -0,0 +1,284 @@
+package org.example.predictionservice.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled index of known places (name + coordinates), loaded from a CSV file.
+ * <p>
+ * Every place gets an integer id (its position in the file). Lookups try, in order:
+ * <ul>
+ * <li>an exact match on the normalized name (hash lookup),</li>
+ * <li>the longest known name contained in the query (Aho–Corasick automaton),</li>
+ * <li>the first known name containing the query (binary search over a suffix array).</li>
+ * </ul>
+ * Lookup cost depends on the query length, not on the number of places.
+ */
+@Component
+public class LocationGazetteer {
+
+    public static final int NOT_FOUND = -1;
+
+    // Normalized names only contain a-z, 0-9 and single spaces
+    private static final int ALPHABET = 37;
+
+    private final String[] names;
+    private final double[][] coordinates;
+    private final Map<String, Integer> exactIndex;
+
+    // Aho–Corasick automaton as a complete DFA: transitions[node * ALPHABET + symbol]
+    private final int[] transitions;
+    // Longest name ending at each node (following failure links), or NOT_FOUND
+    private final int[] longestMatch;
+
+    // Suffix array over all names: (name id, start offset), sorted lexicographically
+    private final int[] suffixName;
+    private final int[] suffixStart;
+
+    public LocationGazetteer(@Value("${prediction.gazetteer.locations:classpath:gazetteer/locations.csv}") Resource locations) {
+        List<String> nameList = new ArrayList<>();
+        List<double[]> coordList = new ArrayList<>();
+        Map<String, Integer> index = new HashMap<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(locations.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split(",");
+                if (parts.length < 3) {
+                    throw new IllegalStateException("Invalid gazetteer line: " + line);
+                }
+                String name = normalize(parts[0]);
+                if (name.isEmpty() || index.containsKey(name)) {
+                    continue;
+                }
+                index.put(name, nameList.size());
+                nameList.add(name);
+                coordList.add(new double[] { Double.parseDouble(parts[1].trim()), Double.parseDouble(parts[2].trim()) });
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load gazetteer from " + locations, e);
+        }
+
+        this.names = nameList.toArray(new String[0]);
+        this.coordinates = coordList.toArray(new double[0][]);
+        this.exactIndex = index;
+
+        // Build the trie, then turn it into a DFA with a BFS over failure links
+        int maxNodes = 1;
+        for (String name : names) {
+            maxNodes += name.length();
+        }
+        int[] next = new int[maxNodes * ALPHABET];
+        Arrays.fill(next, -1);
+        int[] match = new int[maxNodes];
+        Arrays.fill(match, NOT_FOUND);
+        int nodeCount = 1;
+        for (int id = 0; id < names.length; id++) {
+            int node = 0;
+            for (int i = 0; i < names[id].length(); i++) {
+                int slot = node * ALPHABET + symbol(names[id].charAt(i));
+                if (next[slot] < 0) {
+                    next[slot] = nodeCount++;
+                }
+                node = next[slot];
+            }
+            match[node] = id;
+        }
+
+        int[] fail = new int[nodeCount];
+        int[] queue = new int[nodeCount];
+        int head = 0;
+        int tail = 0;
+        for (int sym = 0; sym < ALPHABET; sym++) {
+            if (next[sym] < 0) {
+                next[sym] = 0;
+            } else {
+                fail[next[sym]] = 0;
+                queue[tail++] = next[sym];
+            }
+        }
+        while (head < tail) {
+            int node = queue[head++];
+            // A name ending exactly here is longer than any name reached through the failure link
+            if (match[node] == NOT_FOUND) {
+                match[node] = match[fail[node]];
+            }
+            for (int sym = 0; sym < ALPHABET; sym++) {
+                int slot = node * ALPHABET + sym;
+                int fallback = next[fail[node] * ALPHABET + sym];
+                if (next[slot] < 0) {
+                    next[slot] = fallback;
+                } else {
+                    fail[next[slot]] = fallback;
+                    queue[tail++] = next[slot];
+                }
+            }
+        }
+        this.transitions = Arrays.copyOf(next, nodeCount * ALPHABET);
+        this.longestMatch = Arrays.copyOf(match, nodeCount);
+
+        // Suffix array for "query contained in a known name"
+        int suffixCount = maxNodes - 1;
+        Integer[] order = new Integer[suffixCount];
+        int[] sName = new int[suffixCount];
+        int[] sStart = new int[suffixCount];
+        int k = 0;
+        for (int id = 0; id < names.length; id++) {
+            for (int start = 0; start < names[id].length(); start++) {
+                sName[k] = id;
+                sStart[k] = start;
+                order[k] = k;
+                k++;
+            }
+        }
+        Arrays.sort(order, (a, b) -> {
+            int cmp = names[sName[a]].substring(sStart[a]).compareTo(names[sName[b]].substring(sStart[b]));
+            return cmp != 0 ? cmp : Integer.compare(sName[a], sName[b]);
+        });
+        this.suffixName = new int[suffixCount];
+        this.suffixStart = new int[suffixCount];
+        for (int i = 0; i < suffixCount; i++) {
+            suffixName[i] = sName[order[i]];
+            suffixStart[i] = sStart[order[i]];
+        }
+    }
+
+    /**
+     * Normalize a location name in one pass: lowercase, keep [a-z0-9],
+     * collapse whitespace runs into a single space and trim.
+     */
+    public static String normalize(String location) {
+        if (location == null)
+            return "";
+        StringBuilder sb = new StringBuilder(location.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < location.length(); i++) {
+            char c = Character.toLowerCase(location.charAt(i));
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                if (pendingSpace && sb.length() > 0) {
+                    sb.append(' ');
+                }
+                pendingSpace = false;
+                sb.append(c);
+            } else if (c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u000B') {
+                pendingSpace = true;
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Resolve a normalized location name to a place id, or NOT_FOUND
+     */
+    public int lookup(String normalized) {
+        if (normalized == null || normalized.isEmpty())
+            return NOT_FOUND;
+
+        Integer exact = exactIndex.get(normalized);
+        if (exact != null)
+            return exact;
+
+        int contained = longestContainedName(normalized);
+        if (contained != NOT_FOUND)
+            return contained;
+
+        return firstNameContaining(normalized);
+    }
+
+    /**
+     * Id of a place whose normalized name matches exactly, or NOT_FOUND
+     */
+    public int exactId(String normalized) {
+        Integer id = exactIndex.get(normalized);
+        return id != null ? id : NOT_FOUND;
+    }
+
+    public String name(int id) {
+        return names[id];
+    }
+
+    /**
+     * Coordinates as {latitude, longitude}; the returned array is shared and must not be modified
+     */
+    public double[] coordinates(int id) {
+        return coordinates[id];
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    private int longestContainedName(String query) {
+        int node = 0;
+        int best = NOT_FOUND;
+        for (int i = 0; i < query.length(); i++) {
+            node = transitions[node * ALPHABET + symbol(query.charAt(i))];
+            int candidate = longestMatch[node];
+            if (candidate != NOT_FOUND && (best == NOT_FOUND
+                    || names[candidate].length() > names[best].length()
+                    || (names[candidate].length() == names[best].length() && candidate < best))) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private int firstNameContaining(String query) {
+        int low = 0;
+        int high = suffixName.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareSuffix(mid, query) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int best = NOT_FOUND;
+        for (int i = low; i < suffixName.length && compareSuffix(i, query) == 0; i++) {
+            if (best == NOT_FOUND || suffixName[i] < best) {
+                best = suffixName[i];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Compare a suffix with the query; 0 when the query is a prefix of the suffix
+     */
+    private int compareSuffix(int i, String query) {
+        String name = names[suffixName[i]];
+        int offset = suffixStart[i];
+        int length = Math.min(name.length() - offset, query.length());
+        for (int k = 0; k < length; k++) {
+            int diff = name.charAt(offset + k) - query.charAt(k);
+            if (diff != 0)
+                return diff;
+        }
+        return (name.length() - offset >= query.length()) ? 0 : -1;
+    }
+
+    private static int symbol(char c) {
+        if (c >= 'a' && c <= 'z')
+            return c - 'a';
+        if (c >= '0' && c <= '9')
+            return 26 + (c - '0');
+        return 36; // space
+    }
+}
@@ -0,0 +1,145 @@
+package org.example.predictionservice.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.predictionservice.entity.MonitoringInstance;
+import org.example.predictionservice.entity.MonitoringLease;
+import org.example.predictionservice.repository.MonitoringInstanceRepository;
+import org.example.predictionservice.repository.MonitoringLeaseRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Spreads trip monitoring over the running prediction-service instances.
+ * <p>
+ * Trips are split into partitions by {@code id mod partitions}, and each partition is leased to one instance
+ * in the monitoring_lease table. On every heartbeat an instance records itself as alive, renews its leases and
+ * moves towards its fair share (partitions / live instances): it releases surplus partitions after an instance
+ * joined, and claims free or expired ones after an instance left. Claims are conditional updates, so a
+ * partition is never held by two instances at once.
+ * <p>
+ * Leases are only trusted locally until a third of the TTL before they expire, so an instance that cannot
+ * reach the database stops monitoring before another one may take its partitions over.
+ */
+@Service
+public class MonitoringLeaseCoordinator {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(MonitoringLeaseCoordinator.class);
+
+    private final MonitoringLeaseRepository leaseRepository;
+    private final MonitoringInstanceRepository instanceRepository;
+    private final int partitions;
+    private final Duration leaseTtl;
+    private final String instanceId;
+
+    private volatile boolean partitionsCreated;
+    private volatile Set<Integer> owned = Set.of();
+    private volatile Instant trustedUntil = Instant.MIN;
+
+    public MonitoringLeaseCoordinator(MonitoringLeaseRepository leaseRepository, MonitoringInstanceRepository instanceRepository,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${prediction.monitoring.lease.partitions:64}") int partitions,
+                                      @Value("${prediction.monitoring.lease.ttl-ms:30000}") long leaseTtlMs,
+                                      @Value("${spring.application.name:prediction-service}") String applicationName) {
+        this.leaseRepository = leaseRepository;
+        this.instanceRepository = instanceRepository;
+        this.partitions = partitions;
+        this.leaseTtl = Duration.ofMillis(leaseTtlMs);
+        this.instanceId = applicationName + "-" + UUID.randomUUID();
+        Gauge.builder("monitoring.partitions.owned", this, coordinator -> coordinator.ownedPartitions().size())
+                .description("Trip partitions currently leased to this instance")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Partitions this instance may monitor right now; empty until the first heartbeat succeeded
+     */
+    public Set<Integer> ownedPartitions() {
+        return Instant.now().isBefore(trustedUntil) ? owned : Set.of();
+    }
+
+    public int partitionCount() {
+        return partitions;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    @Scheduled(fixedRateString = "${prediction.monitoring.lease.heartbeat-ms:10000}")
+    public void heartbeat() {
+        try {
+            heartbeat(Instant.now());
+        } catch (Exception e) {
+            log.warn("Monitoring lease heartbeat failed, current leases are kept until they expire", e);
+        }
+    }
+
+    /**
+     * One heartbeat at the given time: renew, then release or claim partitions to reach the fair share
+     */
+    public void heartbeat(Instant now) {
+        if (!partitionsCreated) {
+            createPartitions();
+        }
+        Instant expiresAt = now.plus(leaseTtl);
+        instanceRepository.save(new MonitoringInstance(instanceId, now));
+        leaseRepository.renew(instanceId, expiresAt, now);
+
+        int target = fairShare(instanceRepository.findByLastHeartbeatAfterOrderByInstanceIdAsc(now.minus(leaseTtl)));
+        List<Integer> mine = new ArrayList<>(leaseRepository.findOwned(instanceId, now, partitions));
+        if (mine.size() > target) {
+            List<Integer> surplus = mine.subList(target, mine.size());
+            log.info("Releasing {} monitoring partitions to other instances", surplus.size());
+            leaseRepository.release(instanceId, new ArrayList<>(surplus));
+            surplus.clear();
+        } else if (mine.size() < target) {
+            for (Integer partition : leaseRepository.findClaimable(now, partitions)) {
+                if (mine.size() >= target) {
+                    break;
+                }
+                if (leaseRepository.claim(partition, instanceId, expiresAt, now) == 1) {
+                    mine.add(partition);
+                }
+            }
+        }
+
+        owned = Set.copyOf(mine);
+        trustedUntil = expiresAt.minus(leaseTtl.dividedBy(3));
+        instanceRepository.deleteByLastHeartbeatBefore(now.minus(leaseTtl.multipliedBy(10)));
+    }
+
+    /**
+     * partitions / live instances, the remainder going to the first instances in id order
+     */
+    private int fairShare(List<MonitoringInstance> live) {
+        int index = 0;
+        while (index < live.size() && !live.get(index).getInstanceId().equals(instanceId)) {
+            index++;
+        }
+        int instances = Math.max(live.size(), index + 1);
+        return partitions / instances + (index < partitions % instances ? 1 : 0);
+    }
+
+    private void createPartitions() {
+        for (int partition = 0; partition < partitions; partition++) {
+            if (!leaseRepository.existsById(partition)) {
+                try {
+                    leaseRepository.save(new MonitoringLease(partition));
+                } catch (DataIntegrityViolationException e) {
+                    log.debug("Monitoring partition {} created by another instance", partition);
+                }
+            }
+        }
+        partitionsCreated = true;
+    }
+}
@@ -0,0 +1,106 @@
+package org.example.predictionservice.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.predictionservice.model.EnrichedPrediction;
+import org.example.predictionservice.model.PredictionRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight layer in front of the enriched prediction pipeline.
+ * <p>
+ * Concurrent requests for the same trip (normalized origin, destination, mode and
+ * departure minute) share one computation: the first caller computes, the others
+ * wait on its future. A completed result stays shareable for a short grace window,
+ * so requests arriving right after it are served too. Failed computations are not kept.
+ * <p>
+ * Lookups of an existing entry are lock-free reads; only the first caller for a trip inserts.
+ * The coalescing ratio (shared / all requests) is exported as {@code prediction.coalescing.ratio}.
+ */
+@Component
+public class PredictionCoalescer {
+
+    private final PredictionService predictionService;
+    private final AsyncCache<TripKey, EnrichedPrediction> inFlight;
+
+    public PredictionCoalescer(PredictionService predictionService, MeterRegistry meterRegistry,
+                               @Value("${prediction.coalescing.grace-ms:250}") long graceMs,
+                               @Value("${prediction.coalescing.max-size:10000}") long maxSize) {
+        this.predictionService = predictionService;
+        // In-flight futures never expire; the grace window starts when the computation completes
+        this.inFlight = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(graceMs))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, inFlight, "prediction-coalescing");
+        Gauge.builder("prediction.coalescing.ratio", inFlight, cache -> cache.synchronous().stats().hitRate())
+                .description("Share of prediction requests served by another request's computation")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Blocking prediction, shared with identical concurrent requests
+     */
+    public EnrichedPrediction predict(PredictionRequest request) {
+        try {
+            return coalesce(request, () -> CompletableFuture.completedFuture(predictionService.predictEnriched(request))).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Result of compute, or of the identical computation already in flight.
+     * compute is only called by the first caller for a trip, on its own thread.
+     * The returned future is a copy holding a copy of the prediction, so callers may cancel it or change the
+     * prediction without affecting other waiters.
+     */
+    public CompletableFuture<EnrichedPrediction> coalesce(PredictionRequest request,
+                                                          Supplier<CompletableFuture<EnrichedPrediction>> compute) {
+        TripKey key = key(request);
+        CompletableFuture<EnrichedPrediction> created = new CompletableFuture<>();
+        CompletableFuture<EnrichedPrediction> shared = inFlight.get(key, (k, executor) -> created);
+        if (shared == created) {
+            // Run outside of the cache's map lock; followers are already waiting on "created"
+            try {
+                compute.get().whenComplete((prediction, error) -> {
+                    if (error != null) {
+                        created.completeExceptionally(error);
+                    } else {
+                        created.complete(prediction);
+                    }
+                });
+            } catch (RuntimeException e) {
+                created.completeExceptionally(e);
+            }
+        }
+        return shared.thenApply(prediction -> prediction != null ? prediction.copy() : null);
+    }
+
+    private TripKey key(PredictionRequest request) {
+        return new TripKey(
+                predictionService.normalizeLocation(request.getOrigin()),
+                predictionService.normalizeLocation(request.getDestination()),
+                predictionService.normalizeMode(request.getTransportMode()),
+                predictionService.resolveDeparture(request.getDepartureDate(), request.getDepartureTime())
+                        .truncatedTo(ChronoUnit.MINUTES));
+    }
+
+    private record TripKey(String origin, String destination, String mode, LocalDateTime departure) {
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.predictionservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of the enriched prediction pipeline.
+ * <ul>
+ * <li>{@code prediction.stage}: latency of each stage (route, weather, incidents, delta, build),
+ * tagged with the transport mode and whether a fallback was used, with a percentile histogram.</li>
+ * <li>{@code prediction.fallback}: number of times an input was replaced by its fallback, tagged with input and mode.</li>
+ * </ul>
+ * The mode tag only takes the values driving, walking, transit and other, so the number of series stays
+ * bounded whatever clients send. Meters are registered once and reused.
+ */
+@Component
+public class PredictionMetrics {
+
+    public static final String STAGE_ROUTE = "route";
+    public static final String STAGE_WEATHER = "weather";
+    public static final String STAGE_INCIDENTS = "incidents";
+    public static final String STAGE_DELTA = "delta";
+    public static final String STAGE_BUILD = "build";
+
+    private static final String OTHER_MODE = "other";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> fallbackCounters = new ConcurrentHashMap<>();
+
+    public PredictionMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Record the duration of a stage that started at startNanos (System.nanoTime())
+     */
+    public void recordStage(String stage, String mode, boolean fallback, long startNanos) {
+        String tagMode = modeTag(mode);
+        stageTimers.computeIfAbsent(stage + '|' + tagMode + '|' + fallback, key -> Timer.builder("prediction.stage")
+                        .description("Latency of each enriched prediction stage")
+                        .tag("stage", stage)
+                        .tag("mode", tagMode)
+                        .tag("fallback", String.valueOf(fallback))
+                        .publishPercentileHistogram()
+                        .register(meterRegistry))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Time a downstream fetch from now until its future completes.
+     * A failed, cancelled or empty result counts as a fallback.
+     */
+    public <T> CompletableFuture<T> timeFetch(String stage, String mode, CompletableFuture<T> call) {
+        return timeFetch(stage, mode, call, System.nanoTime());
+    }
+
+    /**
+     * Time a downstream fetch that started at startNanos (System.nanoTime()) until its future completes
+     */
+    public <T> CompletableFuture<T> timeFetch(String stage, String mode, CompletableFuture<T> call, long startNanos) {
+        call.whenComplete((result, error) -> recordStage(stage, mode, error != null || result == null, startNanos));
+        return call;
+    }
+
+    public void fallbackUsed(String input, String mode) {
+        String tagMode = modeTag(mode);
+        fallbackCounters.computeIfAbsent(input + '|' + tagMode, key -> Counter.builder("prediction.fallback")
+                        .description("Inputs replaced by their fallback value")
+                        .tag("input", input)
+                        .tag("mode", tagMode)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    /**
+     * Mode tag value: driving, walking, transit, or other for anything else
+     */
+    static String modeTag(String mode) {
+        if (mode == null) {
+            return OTHER_MODE;
+        }
+        return switch (mode) {
+            case "driving", "walking", "transit" -> mode;
+            default -> OTHER_MODE;
+        };
+    }
+}
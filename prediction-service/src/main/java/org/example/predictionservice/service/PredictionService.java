@@ -1,19 +1,39 @@
 package org.example.predictionservice.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.predictionservice.client.PayloadDecoder;
+import org.example.predictionservice.client.dto.HourlyForecast;
+import org.example.predictionservice.client.dto.IncidentData;
+import org.example.predictionservice.client.dto.RouteData;
+import org.example.predictionservice.client.dto.WeatherConditions;
+import org.example.predictionservice.client.dto.WeatherData;
+import org.example.predictionservice.model.BatchPredictionResult;
+import org.example.predictionservice.model.DepartureSlot;
+import org.example.predictionservice.model.DepartureWindow;
 import org.example.predictionservice.model.EnrichedPrediction;
 import org.example.predictionservice.model.ImpactFactors;
 import org.example.predictionservice.model.WeatherImpactAnalysis;
 import org.example.predictionservice.model.Prediction;
+import org.example.predictionservice.model.PredictionRequest;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 @Service
 public class PredictionService {
@@ -26,17 +46,50 @@ public class PredictionService {
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final Random random = new Random();
     private final WeatherImpactService weatherImpactService;
-
-    public PredictionService(KafkaTemplate<String, Object> kafkaTemplate, RestTemplate restTemplate, WeatherImpactService weatherImpactService) {
+    private final WeatherCache weatherCache;
+    private final RouteCache routeCache;
+    private final LocationGazetteer gazetteer;
+    private final DistanceMatrix distanceMatrix;
+    private final PredictionMetrics metrics;
+    private final DownstreamResilience resilience;
+    private final Executor fetchExecutor;
+    private final long callTimeoutMs;
+    private final long requestBudgetMs;
+    private final int batchRouteParallelism;
+    private final long batchBudgetMs;
+
+    public PredictionService(KafkaTemplate<String, Object> kafkaTemplate,
+                             @Qualifier("fetchRestTemplate") RestTemplate restTemplate, WeatherImpactService weatherImpactService,
+                             WeatherCache weatherCache, RouteCache routeCache, LocationGazetteer gazetteer,
+                             DistanceMatrix distanceMatrix, PredictionMetrics metrics, DownstreamResilience resilience,
+                             @Qualifier("predictionFetchExecutor") Executor fetchExecutor,
+                             @Value("${prediction.fetch.call-timeout-ms:2500}") long callTimeoutMs,
+                             @Value("${prediction.fetch.request-budget-ms:4000}") long requestBudgetMs,
+                             @Value("${prediction.batch.route-parallelism:8}") int batchRouteParallelism,
+                             @Value("${prediction.batch.budget-ms:30000}") long batchBudgetMs) {
         this.kafkaTemplate = kafkaTemplate;
         this.restTemplate = restTemplate;
         this.weatherImpactService = weatherImpactService;
+        this.weatherCache = weatherCache;
+        this.routeCache = routeCache;
+        this.gazetteer = gazetteer;
+        this.distanceMatrix = distanceMatrix;
+        this.metrics = metrics;
+        this.resilience = resilience;
+        this.fetchExecutor = fetchExecutor;
+        this.callTimeoutMs = callTimeoutMs;
+        this.requestBudgetMs = requestBudgetMs;
+        this.batchRouteParallelism = batchRouteParallelism;
+        this.batchBudgetMs = batchBudgetMs;
     }
 
     // Service URLs (via Eureka)
-    private static final String TRAFFIC_SERVICE_URL = "http://TRAFFIC-SERVICE/api/traffic/route?origin={origin}&destination={destination}";
-    private static final String METEO_SERVICE_COORDS_URL = "http://METEO-SERVICE/api/meteo/live?latitude={lat}&longitude={lon}";
-    private static final String INCIDENT_SERVICE_URL = "http://INCIDENT-SERVICE/api/incidents";
+    static final String TRAFFIC_SERVICE_URL = "http://TRAFFIC-SERVICE/api/traffic/route?origin={origin}&destination={destination}";
+    static final String INCIDENT_SERVICE_URL = "http://INCIDENT-SERVICE/api/incidents";
+
+    private static final WeatherConditions DEFAULT_CONDITIONS = new WeatherConditions(null,
+            WeatherConditions.DEFAULT_CONDITION, WeatherConditions.DEFAULT_TEMPERATURE,
+            WeatherConditions.DEFAULT_VISIBILITY, WeatherConditions.DEFAULT_WIND_SPEED, false);
 
     // Peak hours configuration (Morocco time)
     private static final int MORNING_PEAK_START = 7;
@@ -44,103 +97,10 @@ public class PredictionService {
     private static final int EVENING_PEAK_START = 17;
     private static final int EVENING_PEAK_END = 20;
 
-    // ========== CASABLANCA DISTANCE MATRIX (km) ==========
-    // Realistic distances between Casablanca neighborhoods
-    private static final Map<String, Map<String, Double>> CASABLANCA_DISTANCES = new HashMap<>();
-
-    static {
-        // Initialize distance matrix for Casablanca neighborhoods
-        addDistance("maarif", "casa port", 6.5);
-        addDistance("maarif", "technopark", 8.0);
-        addDistance("maarif", "ain diab", 5.0);
-        addDistance("maarif", "sidi maarouf", 7.5);
-        addDistance("maarif", "centre ville", 3.0);
-        addDistance("maarif", "anfa", 2.5);
-        addDistance("maarif", "bourgogne", 1.5);
-        addDistance("maarif", "racine", 1.0);
-        addDistance("maarif", "gauthier", 1.2);
-        addDistance("maarif", "oasis", 4.0);
-        addDistance("maarif", "hay hassani", 6.0);
-
-        addDistance("casa port", "technopark", 12.0);
-        addDistance("casa port", "ain diab", 8.0);
-        addDistance("casa port", "centre ville", 2.5);
-        addDistance("casa port", "sidi maarouf", 14.0);
-        addDistance("casa port", "anfa", 4.5);
-        addDistance("casa port", "medina", 1.0);
-
-        addDistance("technopark", "ain diab", 10.0);
-        addDistance("technopark", "sidi maarouf", 3.0);
-        addDistance("technopark", "bouskoura", 5.0);
-        addDistance("technopark", "centre ville", 15.0);
-
-        addDistance("ain diab", "anfa", 3.0);
-        addDistance("ain diab", "centre ville", 6.0);
-        addDistance("ain diab", "corniche", 1.0);
-
-        addDistance("centre ville", "anfa", 2.5);
-        addDistance("centre ville", "medina", 2.0);
-        addDistance("centre ville", "sidi maarouf", 12.0);
-
-        // Inter-city distances
-        addDistance("casablanca", "rabat", 87.0);
-        addDistance("casablanca", "marrakech", 240.0);
-        addDistance("casablanca", "tanger", 340.0);
-        addDistance("casablanca", "fes", 295.0);
-        addDistance("casablanca", "agadir", 460.0);
-        addDistance("casablanca", "el jadida", 100.0);
-        addDistance("casablanca", "mohammedia", 25.0);
-        addDistance("rabat", "tanger", 250.0);
-        addDistance("rabat", "fes", 200.0);
-        addDistance("rabat", "marrakech", 330.0);
-        addDistance("marrakech", "agadir", 250.0);
-        addDistance("maarif", "rabat", 90.0);
-        addDistance("technopark", "rabat", 85.0);
-    }
-
-    private static void addDistance(String from, String to, double distance) {
-        CASABLANCA_DISTANCES.computeIfAbsent(from.toLowerCase(), k -> new HashMap<>())
-                .put(to.toLowerCase(), distance);
-        CASABLANCA_DISTANCES.computeIfAbsent(to.toLowerCase(), k -> new HashMap<>())
-                .put(from.toLowerCase(), distance);
-    }
-
-    // ========== COORDINATES DATABASE ==========
-    private static final Map<String, double[]> LOCATION_COORDS = new HashMap<>();
-
-    static {
-        // Casablanca neighborhoods
-        LOCATION_COORDS.put("maarif", new double[] { 33.5833, -7.6333 });
-        LOCATION_COORDS.put("casa port", new double[] { 33.6033, -7.6164 });
-        LOCATION_COORDS.put("technopark", new double[] { 33.5167, -7.6500 });
-        LOCATION_COORDS.put("ain diab", new double[] { 33.5900, -7.6700 });
-        LOCATION_COORDS.put("anfa", new double[] { 33.5783, -7.6481 });
-        LOCATION_COORDS.put("centre ville", new double[] { 33.5950, -7.6200 });
-        LOCATION_COORDS.put("sidi maarouf", new double[] { 33.5350, -7.6650 });
-        LOCATION_COORDS.put("bourgogne", new double[] { 33.5800, -7.6250 });
-        LOCATION_COORDS.put("racine", new double[] { 33.5850, -7.6350 });
-        LOCATION_COORDS.put("gauthier", new double[] { 33.5870, -7.6280 });
-        LOCATION_COORDS.put("oasis", new double[] { 33.5650, -7.6450 });
-        LOCATION_COORDS.put("hay hassani", new double[] { 33.5550, -7.6800 });
-        LOCATION_COORDS.put("medina", new double[] { 33.6000, -7.6100 });
-        LOCATION_COORDS.put("corniche", new double[] { 33.5920, -7.6650 });
-        LOCATION_COORDS.put("bouskoura", new double[] { 33.4500, -7.6500 });
-
-        // Major Moroccan cities
-        LOCATION_COORDS.put("casablanca", new double[] { 33.5731, -7.5898 });
-        LOCATION_COORDS.put("rabat", new double[] { 34.0209, -6.8416 });
-        LOCATION_COORDS.put("marrakech", new double[] { 31.6295, -7.9811 });
-        LOCATION_COORDS.put("tanger", new double[] { 35.7595, -5.8340 });
-        LOCATION_COORDS.put("fes", new double[] { 34.0181, -5.0078 });
-        LOCATION_COORDS.put("agadir", new double[] { 30.4278, -9.5981 });
-        LOCATION_COORDS.put("el jadida", new double[] { 33.2549, -8.5074 });
-        LOCATION_COORDS.put("mohammedia", new double[] { 33.6861, -7.3833 });
-    }
-
     /**
      * Wrapper for prediction using request object
      */
-    public EnrichedPrediction predictEnriched(org.example.predictionservice.model.PredictionRequest request) {
+    public EnrichedPrediction predictEnriched(PredictionRequest request) {
         return analyzeEnrichedTrip(
                 request.getOrigin(),
                 request.getDestination(),
@@ -157,21 +117,64 @@ public class PredictionService {
         log.info("Analyzing trip: {} -> {} at {} {} via {}", origin, destination, departureDate, departureTime, transportMode);
 
         // Defaut mode logic
-        String mode = (transportMode != null) ? transportMode.toLowerCase() : "driving";
+        String mode = normalizeMode(transportMode);
+
+        // Step 1 & 2: Fire route, weather and incident calls in parallel.
+        // Each call has its own deadline and all three share the request budget.
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(requestBudgetMs);
+        CompletableFuture<RouteData> routeCall = metrics.timeFetch(PredictionMetrics.STAGE_ROUTE, mode,
+                fetchRouteData(origin, destination, mode, departureDate, departureTime));
+        CompletableFuture<WeatherData> weatherCall = metrics.timeFetch(PredictionMetrics.STAGE_WEATHER, mode,
+                fetchWeatherData(origin));
+        CompletableFuture<List<IncidentData>> incidentsCall = metrics.timeFetch(PredictionMetrics.STAGE_INCIDENTS, mode,
+                fetchAsync(this::requestIncidents));
+
+        return assemblePrediction(origin, destination, departureDate, departureTime, mode,
+                awaitInput(routeCall, deadline, "route"),
+                awaitInput(weatherCall, deadline, "weather"),
+                awaitInput(incidentsCall, deadline, "incidents"));
+    }
+
+    String normalizeMode(String transportMode) {
+        return (transportMode != null) ? transportMode.toLowerCase() : "driving";
+    }
+
+    /**
+     * Compute the prediction from already-fetched inputs.
+     * A null input means its downstream call failed: the fallback is applied and the input is reported as degraded.
+     */
+    EnrichedPrediction assemblePrediction(String origin, String destination, String departureDate, String departureTime,
+            String mode, RouteData routeData, WeatherData weatherData, List<IncidentData> incidents) {
+        List<String> degradedInputs = new ArrayList<>();
+
+        // Get Google/TomTom Base Duration (The "Solid Estimate")
+        if (routeData == null) {
+            degradedInputs.add("route");
+            routeData = createSmartRouteData(origin, destination);
+        }
+        double baseDuration = routeData.durationMinutes();
+        double distanceKm = routeData.distanceKm();
 
-        // Step 1: Get Google/TomTom Base Duration (The "Solid Estimate")
-        Map<String, Object> routeData = fetchRouteData(origin, destination, mode);
-        double baseDuration = getDoubleValue(routeData, "durationMinutes", 25.0); // Fallback to 25 if fails
-        double distanceKm = getDoubleValue(routeData, "distanceKm", 10.0);
+        // Context Data (The "Local Factors")
+        if (weatherData == null) {
+            degradedInputs.add("weather");
+            weatherData = createMockWeatherData();
+        }
+        if (incidents == null) {
+            degradedInputs.add("incidents");
+            incidents = Collections.emptyList();
+        }
+        boolean fallback = !degradedInputs.isEmpty();
+        for (String input : degradedInputs) {
+            metrics.fallbackUsed(input, mode);
+        }
 
-        // Step 2: Fetch Context Data (The "Local Factors")
-        Map<String, Object> weatherData = fetchWeatherData(origin);
-        List<Map<String, Object>> incidents = fetchIncidents();
+        long deltaStart = System.nanoTime();
         boolean isPeakHour = checkPeakHour(departureTime);
 
         // Step 3: Calculate ML Delta (The "Correction")
         // Delta = WeatherDelta + TrafficDelta + IncidentDelta + PeakDelta
-        double weatherDelta = calculateWeatherDelta(weatherData, mode);
+        double weatherDelta = calculateWeatherDelta(weatherData, resolveDeparture(departureDate, departureTime), mode);
         double incidentDelta = calculateIncidentDelta(incidents, mode);
         double peakDelta = calculatePeakDelta(isPeakHour, mode);
         
@@ -186,22 +189,216 @@ public class PredictionService {
 
         // Step 5: Confidence & Intelligence
         double confidence = calculateConfidence(baseDuration, weatherData, incidents, mode);
-        String recommendation = generateAIRecommendation(isPeakHour, extractWeatherCondition(weatherData), incidents.size(), departureTime, totalDelta);
+        String recommendation = generateAIRecommendation(isPeakHour, currentConditions(weatherData).condition(), incidents.size(), departureTime, totalDelta);
+        metrics.recordStage(PredictionMetrics.STAGE_DELTA, mode, fallback, deltaStart);
 
-        return buildEnrichedPrediction(origin, destination, routeData, weatherData, incidents, isPeakHour,
+        long buildStart = System.nanoTime();
+        EnrichedPrediction prediction = buildEnrichedPrediction(origin, destination, routeData, weatherData, incidents, isPeakHour,
                 departureTime, departureDate, predictedDuration, baseDuration, distanceKm, totalDelta, confidence, recommendation);
+        prediction.setDegradedInputs(degradedInputs);
+        metrics.recordStage(PredictionMetrics.STAGE_BUILD, mode, fallback, buildStart);
+        return prediction;
+    }
+
+    /**
+     * Predict many trips at once. Incidents are fetched once for the whole batch, weather once per
+     * distinct geo-cell, and routes with bounded parallelism. Results keep the input order and a
+     * failing trip only fails its own entry. Stage timers are recorded per trip as on the single-trip
+     * path, the shared incident and weather calls being timed from the start of the batch.
+     */
+    public List<BatchPredictionResult> predictBatch(List<PredictionRequest> requests) {
+        log.info("Analyzing batch of {} trips", requests.size());
+        long batchStart = System.nanoTime();
+        long deadline = batchStart + TimeUnit.MILLISECONDS.toNanos(batchBudgetMs);
+
+        // Incidents are not location specific: one call per batch
+        CompletableFuture<List<IncidentData>> incidentsCall = fetchAsync(this::requestIncidents);
+
+        // One weather lookup per distinct cell
+        Map<WeatherCache.GeoCell, CompletableFuture<WeatherData>> weatherCalls = new HashMap<>();
+        WeatherCache.GeoCell[] cells = new WeatherCache.GeoCell[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            PredictionRequest request = requests.get(i);
+            if (request == null || request.getOrigin() == null) {
+                continue;
+            }
+            double[] coords = weatherCoordinates(request.getOrigin());
+            cells[i] = weatherCache.cell(coords[0], coords[1]);
+            weatherCalls.computeIfAbsent(cells[i], cell -> weatherCache.get(cell)
+                    .orTimeout(callTimeoutMs, TimeUnit.MILLISECONDS));
+        }
+
+        // Routes, at most batchRouteParallelism in flight
+        Semaphore routePermits = new Semaphore(batchRouteParallelism);
+        List<CompletableFuture<RouteData>> routeCalls = new ArrayList<>(requests.size());
+        for (PredictionRequest request : requests) {
+            if (!isValidTrip(request)) {
+                routeCalls.add(null);
+                continue;
+            }
+            String mode = normalizeMode(request.getTransportMode());
+            CompletableFuture<RouteData> routeCall;
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                if (routePermits.tryAcquire(remaining, TimeUnit.NANOSECONDS)) {
+                    routeCall = fetchRouteData(request.getOrigin(), request.getDestination(),
+                            mode, request.getDepartureDate(), request.getDepartureTime());
+                    routeCall.whenComplete((route, error) -> routePermits.release());
+                } else {
+                    routeCall = CompletableFuture.completedFuture(null);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                routeCall = CompletableFuture.completedFuture(null);
+            }
+            routeCalls.add(metrics.timeFetch(PredictionMetrics.STAGE_ROUTE, mode, routeCall));
+        }
+
+        for (int i = 0; i < requests.size(); i++) {
+            if (isValidTrip(requests.get(i))) {
+                String mode = normalizeMode(requests.get(i).getTransportMode());
+                metrics.timeFetch(PredictionMetrics.STAGE_INCIDENTS, mode, incidentsCall, batchStart);
+                metrics.timeFetch(PredictionMetrics.STAGE_WEATHER, mode, weatherCalls.get(cells[i]), batchStart);
+            }
+        }
+
+        List<IncidentData> incidents = awaitInput(incidentsCall, deadline, "incidents");
+        Map<WeatherCache.GeoCell, WeatherData> weatherByCell = new HashMap<>();
+        for (Map.Entry<WeatherCache.GeoCell, CompletableFuture<WeatherData>> call : weatherCalls.entrySet()) {
+            weatherByCell.put(call.getKey(), awaitInput(call.getValue(), deadline, "weather"));
+        }
+
+        List<BatchPredictionResult> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            PredictionRequest request = requests.get(i);
+            if (!isValidTrip(request)) {
+                results.add(BatchPredictionResult.failed(i, "origin and destination are required"));
+                continue;
+            }
+            try {
+                EnrichedPrediction prediction = assemblePrediction(request.getOrigin(), request.getDestination(),
+                        request.getDepartureDate(), request.getDepartureTime(), normalizeMode(request.getTransportMode()),
+                        awaitInput(routeCalls.get(i), deadline, "route"),
+                        weatherByCell.get(cells[i]),
+                        incidents);
+                results.add(BatchPredictionResult.ok(i, prediction));
+            } catch (Exception e) {
+                log.warn("Batch trip {} failed: {}", i, e.getMessage());
+                results.add(BatchPredictionResult.failed(i, e.getMessage()));
+            }
+        }
+        return results;
     }
 
-    private double calculateWeatherDelta(Map<String, Object> weatherData, String mode) {
+    /**
+     * Sweep departure times from start to start + windowMinutes every stepMinutes.
+     * Route, weather and incidents are fetched once; each slot only re-evaluates the
+     * peak-hour correction and the hourly-forecast weather impact.
+     */
+    public DepartureWindow optimizeDeparture(String origin, String destination, String departureDate,
+            String startTime, int windowMinutes, int stepMinutes, String transportMode) {
+        log.info("Optimizing departure: {} -> {} from {} over {} min every {} min", origin, destination, startTime, windowMinutes, stepMinutes);
+
+        String mode = normalizeMode(transportMode);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(requestBudgetMs);
+        CompletableFuture<RouteData> routeCall = fetchRouteData(origin, destination, mode, departureDate, startTime);
+        CompletableFuture<WeatherData> weatherCall = fetchWeatherData(origin);
+        CompletableFuture<List<IncidentData>> incidentsCall = fetchAsync(this::requestIncidents);
+
+        List<String> degradedInputs = new ArrayList<>();
+        RouteData routeData = awaitInput(routeCall, deadline, "route");
+        if (routeData == null) {
+            degradedInputs.add("route");
+            routeData = createSmartRouteData(origin, destination);
+        }
+        WeatherData weatherData = awaitInput(weatherCall, deadline, "weather");
+        if (weatherData == null) {
+            degradedInputs.add("weather");
+            weatherData = createMockWeatherData();
+        }
+        List<IncidentData> incidents = awaitInput(incidentsCall, deadline, "incidents");
+        if (incidents == null) {
+            degradedInputs.add("incidents");
+            incidents = Collections.emptyList();
+        }
+
+        double baseDuration = routeData.durationMinutes();
+        // Slot-independent part of the delta
+        double fixedDelta = calculateIncidentDelta(incidents, mode) + calculateHistoricalBias(baseDuration, mode);
+
+        // Slots keep their date, so a window running past midnight reads the next day's forecast
+        LocalDateTime start = resolveDeparture(departureDate, startTime).withSecond(0).withNano(0);
+        DateTimeFormatter hhmm = DateTimeFormatter.ofPattern("HH:mm");
+        List<DepartureSlot> slots = new ArrayList<>();
+        DepartureSlot best = null;
+        for (int offset = 0; offset <= windowMinutes; offset += stepMinutes) {
+            LocalDateTime departure = start.plusMinutes(offset);
+            String slotTime = departure.format(hhmm);
+            boolean isPeakHour = checkPeakHour(slotTime);
+            WeatherImpactAnalysis weatherImpact = weatherImpactService.analyzeImpactAt(weatherData, departure);
+            // Same weather delta as a single prediction departing at this slot
+            double weatherDelta = calculateWeatherDelta(weatherData, departure, mode);
+
+            double predictedDuration = baseDuration + fixedDelta + weatherDelta + calculatePeakDelta(isPeakHour, mode);
+            DepartureSlot slot = new DepartureSlot(slotTime, calculateArrivalTime(slotTime, predictedDuration),
+                    Math.round(predictedDuration * 10.0) / 10.0, isPeakHour, weatherImpact.getImpactLevel());
+            slots.add(slot);
+            if (best == null || slot.getPredictedDuration() < best.getPredictedDuration()) {
+                best = slot;
+            }
+        }
+
+        double minutesSaved = slots.isEmpty() ? 0 : slots.get(0).getPredictedDuration() - best.getPredictedDuration();
+        return new DepartureWindow(origin, destination, mode, slots, best,
+                Math.round(minutesSaved * 10.0) / 10.0, degradedInputs);
+    }
+
+    private boolean isValidTrip(PredictionRequest request) {
+        return request != null && request.getOrigin() != null && request.getDestination() != null;
+    }
+
+    /**
+     * Run a downstream call on the fetch pool, bounded by the per-call deadline
+     */
+    private <T> CompletableFuture<T> fetchAsync(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, fetchExecutor)
+                .orTimeout(callTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Wait for a downstream result within what is left of the request budget.
+     * Returns null when the call failed or missed its deadline, so the caller applies its fallback.
+     */
+    private <T> T awaitInput(CompletableFuture<T> call, long deadlineNanos, String input) {
+        try {
+            long remaining = Math.max(0, deadlineNanos - System.nanoTime());
+            return call.get(remaining, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Deadline exceeded for {} data, using fallback", input);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof TimeoutException) {
+                log.warn("Deadline exceeded for {} data, using fallback", input);
+            } else {
+                log.warn("Failed to fetch {} data: {}", input, cause.getMessage());
+            }
+        }
+        call.cancel(true);
+        return null;
+    }
+
+    private double calculateWeatherDelta(WeatherData weatherData, LocalDateTime departure, String mode) {
          if (mode.equals("walking")) return 0; // Rain doesn't slow walking speed technically, just comfort
          
-         String condition = extractWeatherCondition(weatherData).toLowerCase();
+         String condition = conditionAt(weatherData, departure).toLowerCase();
          if (condition.contains("rain") || condition.contains("pluie")) return 5.0; // +5 mins for rain
          if (condition.contains("fog") || condition.contains("brouillard")) return 8.0; // +8 mins for fog
          return 0.0;
     }
 
-    private double calculateIncidentDelta(List<Map<String, Object>> incidents, String mode) {
+    private double calculateIncidentDelta(List<IncidentData> incidents, String mode) {
         if (mode.equals("walking") || mode.equals("transit")) return 0; // Assume rail/walking unaffected for MVP
         
         // Simple linear model for accidents
@@ -221,7 +418,7 @@ public class PredictionService {
         return 0.0;
     }
 
-    private double calculateConfidence(double baseDuration, Map<String, Object> weatherData, List<Map<String, Object>> incidents, String mode) {
+    private double calculateConfidence(double baseDuration, WeatherData weatherData, List<IncidentData> incidents, String mode) {
         double score = 0.95; // Start high
         if (weatherData == null) score -= 0.10;
         if (mode.equals("transit")) score -= 0.15; // Transit prediction is harder
@@ -232,16 +429,43 @@ public class PredictionService {
 
 
     /**
-     * Fetch route data from Traffic Service (TomTom integration)
+     * Fetch route data through the route cache; identical concurrent lookups share one call
+     */
+    private CompletableFuture<RouteData> fetchRouteData(String origin, String destination, String mode,
+                                                                  String departureDate, String departureTime) {
+        return routeCache.get(normalizeLocation(origin), normalizeLocation(destination), mode,
+                        resolveDeparture(departureDate, departureTime),
+                        () -> CompletableFuture.supplyAsync(() -> requestRouteData(origin, destination, mode), fetchExecutor))
+                .orTimeout(callTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Departure date-time of a request, defaulting to today and now
+     */
+    LocalDateTime resolveDeparture(String departureDate, String departureTime) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            LocalDate date = (departureDate == null || departureDate.isEmpty()) ? now.toLocalDate() : LocalDate.parse(departureDate);
+            LocalTime time = (departureTime == null || departureTime.isEmpty()) ? now.toLocalTime()
+                    : LocalTime.parse(departureTime, DateTimeFormatter.ofPattern("HH:mm"));
+            return LocalDateTime.of(date, time);
+        } catch (Exception e) {
+            return now;
+        }
+    }
+
+    /**
+     * Fetch route data from Traffic Service (TomTom integration).
+     * Returns null when no usable data came back.
      */
-    private Map<String, Object> fetchRouteData(String origin, String destination, String mode) {
+    private RouteData requestRouteData(String origin, String destination, String mode) {
         try {
             // TODO: Append mode to Traffic Service URL if supported
-            @SuppressWarnings("unchecked")
-            Map<String, Object> routeData = restTemplate.getForObject(
-                    TRAFFIC_SERVICE_URL, Map.class, origin, destination);
+            RouteData routeData = resilience.call(DownstreamResilience.TRAFFIC,
+                    () -> restTemplate.execute(TRAFFIC_SERVICE_URL, HttpMethod.GET, null,
+                            response -> PayloadDecoder.decodeRoute(response.getBody()), origin, destination));
 
-            if (routeData != null && routeData.containsKey("durationMinutes")) {
+            if (routeData != null) {
                 log.info("Traffic data received from TomTom: {}", routeData);
                 return routeData;
             }
@@ -249,17 +473,15 @@ public class PredictionService {
             log.warn("Failed to fetch route data from TomTom: {}", e.getMessage());
         }
 
-        // Use smart fallback with accurate distance matrix
-        return createSmartRouteData(origin, destination);
+        // Caller uses smart fallback with accurate distance matrix
+        return null;
     }
 
     /**
      * Create smart route data using distance matrix and realistic speed
      * calculations
      */
-    private Map<String, Object> createSmartRouteData(String origin, String destination) {
-        Map<String, Object> routeData = new HashMap<>();
-
+    private RouteData createSmartRouteData(String origin, String destination) {
         // Get realistic distance
         double distance = getRealisticDistance(origin, destination);
 
@@ -270,10 +492,12 @@ public class PredictionService {
         double trafficVariation = random.nextDouble() * 0.15;
         double trafficDelay = baseDuration * trafficVariation;
 
-        routeData.put("distanceKm", Math.round(distance * 10.0) / 10.0);
-        routeData.put("durationMinutes", Math.round((baseDuration + trafficDelay) * 10.0) / 10.0);
-        routeData.put("trafficDelayMinutes", Math.round(trafficDelay * 10.0) / 10.0);
-        routeData.put("riskLevel", trafficDelay > 5 ? "MEDIUM" : "LOW");
+        RouteData routeData = new RouteData(
+                Math.round((baseDuration + trafficDelay) * 10.0) / 10.0,
+                Math.round(distance * 10.0) / 10.0,
+                Math.round(trafficDelay * 10.0) / 10.0,
+                trafficDelay > 5 ? "MEDIUM" : "LOW",
+                Collections.emptyList());
 
         log.info("Smart route data: {} -> {} = {} km, {} min", origin, destination, distance, baseDuration);
 
@@ -281,44 +505,18 @@ public class PredictionService {
     }
 
     /**
-     * Get realistic distance using the distance matrix or Haversine formula
+     * Get realistic distance using the precomputed distance matrix
      */
-    private double getRealisticDistance(String origin, String destination) {
+    double getRealisticDistance(String origin, String destination) {
         String originLower = normalizeLocation(origin);
         String destLower = normalizeLocation(destination);
 
-        // Check direct match in distance matrix
-        if (CASABLANCA_DISTANCES.containsKey(originLower)) {
-            Map<String, Double> distances = CASABLANCA_DISTANCES.get(originLower);
-            if (distances.containsKey(destLower)) {
-                return distances.get(destLower);
-            }
-
-            // Try partial match
-            for (Map.Entry<String, Double> entry : distances.entrySet()) {
-                if (destLower.contains(entry.getKey()) || entry.getKey().contains(destLower)) {
-                    return entry.getValue();
-                }
-            }
-        }
-
-        // Try reverse or partial match in any key
-        for (Map.Entry<String, Map<String, Double>> outer : CASABLANCA_DISTANCES.entrySet()) {
-            if (originLower.contains(outer.getKey()) || outer.getKey().contains(originLower)) {
-                for (Map.Entry<String, Double> inner : outer.getValue().entrySet()) {
-                    if (destLower.contains(inner.getKey()) || inner.getKey().contains(destLower)) {
-                        return inner.getValue();
-                    }
-                }
-            }
-        }
-
-        // Use Haversine formula for unknown locations
-        double[] originCoords = getCoordinates(origin);
-        double[] destCoords = getCoordinates(destination);
+        int originId = gazetteer.lookup(originLower);
+        int destId = gazetteer.lookup(destLower);
 
-        if (originCoords != null && destCoords != null) {
-            return haversineDistance(originCoords[0], originCoords[1], destCoords[0], destCoords[1]);
+        // Known road distance, shortest path over known roads, or Haversine estimate
+        if (originId != LocationGazetteer.NOT_FOUND && destId != LocationGazetteer.NOT_FOUND) {
+            return distanceMatrix.distance(originId, destId);
         }
 
         // Last resort: estimate based on same city or different cities
@@ -332,13 +530,8 @@ public class PredictionService {
     /**
      * Normalize location name for matching
      */
-    private String normalizeLocation(String location) {
-        if (location == null)
-            return "";
-        return location.toLowerCase()
-                .replaceAll("[^a-z0-9\\s]", "")
-                .replaceAll("\\s+", " ")
-                .trim();
+    String normalizeLocation(String location) {
+        return LocationGazetteer.normalize(location);
     }
 
     /**
@@ -388,87 +581,52 @@ public class PredictionService {
     }
 
     /**
-     * Haversine formula to calculate distance between two coordinates
+     * Get coordinates for a location
      */
-    private double haversineDistance(double lat1, double lon1, double lat2, double lon2) {
-        final int R = 6371; // Earth radius in km
-
-        double latDistance = Math.toRadians(lat2 - lat1);
-        double lonDistance = Math.toRadians(lon2 - lon1);
-
-        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                        * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
-
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-
-        // Add 30% for road vs straight-line distance
-        return R * c * 1.3;
+    double[] getCoordinates(String location) {
+        int id = gazetteer.lookup(normalizeLocation(location));
+        return id != LocationGazetteer.NOT_FOUND ? gazetteer.coordinates(id) : null;
     }
 
     /**
-     * Get coordinates for a location
+     * Coordinates used for the weather lookup of a location
      */
-    private double[] getCoordinates(String location) {
-        String normalized = normalizeLocation(location);
-
-        // Direct lookup
-        if (LOCATION_COORDS.containsKey(normalized)) {
-            return LOCATION_COORDS.get(normalized);
+    double[] weatherCoordinates(String origin) {
+        double[] coords = getCoordinates(origin);
+        if (coords == null) {
+            coords = new double[] { 33.5731, -7.5898 }; // Default to Casablanca
         }
-
-        // Partial match
-        for (Map.Entry<String, double[]> entry : LOCATION_COORDS.entrySet()) {
-            if (normalized.contains(entry.getKey()) || entry.getKey().contains(normalized)) {
-                return entry.getValue();
-            }
-        }
-
-        return null;
+        return coords;
     }
 
     /**
-     * Fetch weather data from Meteo Service
+     * Fetch weather data from Meteo Service through the geo-cell cache
      */
-    private Map<String, Object> fetchWeatherData(String origin) {
-        try {
-            double[] coords = getCoordinates(origin);
-            if (coords == null) {
-                coords = new double[] { 33.5731, -7.5898 }; // Default to Casablanca
-            }
-
-            @SuppressWarnings("unchecked")
-            Map<String, Object> weatherData = restTemplate.getForObject(
-                    METEO_SERVICE_COORDS_URL, Map.class, coords[0], coords[1]);
-
-            if (weatherData != null) {
-                log.info("Weather data received: {}", weatherData);
-                return weatherData;
-            }
-        } catch (Exception e) {
-            log.warn("Failed to fetch weather data: {}", e.getMessage());
-        }
-
-        return createMockWeatherData();
+    private CompletableFuture<WeatherData> fetchWeatherData(String origin) {
+        double[] coords = weatherCoordinates(origin);
+        return weatherCache.get(coords[0], coords[1])
+                .orTimeout(callTimeoutMs, TimeUnit.MILLISECONDS);
     }
 
     /**
-     * Fetch incidents from Incident Service
+     * Fetch incidents from Incident Service.
+     * Returns null when the call failed.
      */
-    @SuppressWarnings("unchecked")
-    private List<Map<String, Object>> fetchIncidents() {
+    private List<IncidentData> requestIncidents() {
         try {
-            Object response = restTemplate.getForObject(INCIDENT_SERVICE_URL, Object.class);
+            List<IncidentData> incidents = resilience.call(DownstreamResilience.INCIDENT,
+                    () -> restTemplate.execute(INCIDENT_SERVICE_URL, HttpMethod.GET, null,
+                            response -> PayloadDecoder.decodeIncidents(response.getBody())));
 
-            if (response instanceof List) {
-                log.info("Incidents data received: {} incidents", ((List<?>) response).size());
-                return (List<Map<String, Object>>) response;
+            if (incidents != null) {
+                log.info("Incidents data received: {} incidents", incidents.size());
+                return incidents;
             }
         } catch (Exception e) {
             log.warn("Failed to fetch incidents: {}", e.getMessage());
         }
 
-        return Collections.emptyList();
+        return null;
     }
 
     /**
@@ -497,11 +655,11 @@ public class PredictionService {
     /**
      * Build the enriched prediction with all factors calculated
      */
-    private EnrichedPrediction buildEnrichedPrediction(
+    EnrichedPrediction buildEnrichedPrediction(
             String origin, String destination,
-            Map<String, Object> routeData,
-            Map<String, Object> weatherData,
-            List<Map<String, Object>> incidents,
+            RouteData routeData,
+            WeatherData weatherData,
+            List<IncidentData> incidents,
             boolean isPeakHour,
             String departureTime,
             String departureDate,
@@ -513,10 +671,11 @@ public class PredictionService {
             String aiRecommendation) {
 
         // Extract basic data for other parts
-        String weatherCondition = extractWeatherCondition(weatherData); 
-        double temperature = extractTemperature(weatherData);
-        double visibility = extractVisibility(weatherData);
-        double windSpeed = extractWindSpeed(weatherData);
+        WeatherConditions current = currentConditions(weatherData);
+        String weatherCondition = current.condition();
+        double temperature = current.temperature();
+        double visibility = current.visibility();
+        double windSpeed = current.windSpeed();
         
         // Calculate percentages for UI (Simplified logic based on deltas if possible, or keep existing for now)
         // For MVP, we use the previously calculated "delta" contributors to weight the impact factors
@@ -542,8 +701,8 @@ public class PredictionService {
 
         // Route Geometry
         List<Object> routeGeometry = null;
-        if (routeData != null && routeData.containsKey("routeGeometry")) {
-             routeGeometry = (List<Object>) routeData.get("routeGeometry");
+        if (routeData != null && !routeData.routeGeometry().isEmpty()) {
+             routeGeometry = Collections.unmodifiableList(routeData.routeGeometry());
         }
 
         // Calculate arrival time
@@ -719,18 +878,12 @@ public class PredictionService {
         return Math.min(ratio, 0.3); // Cap at 30% increase
     }
 
-    private double calculateIncidentModifier(List<Map<String, Object>> incidents) {
+    private double calculateIncidentModifier(List<IncidentData> incidents) {
         if (incidents == null || incidents.isEmpty())
             return 0.0;
 
         int count = incidents.size();
-        boolean hasMajor = incidents.stream()
-                .anyMatch(i -> {
-                    Object severity = i.get("severity");
-                    return severity != null &&
-                            (severity.toString().equalsIgnoreCase("HIGH") ||
-                                    severity.toString().equalsIgnoreCase("MAJOR"));
-                });
+        boolean hasMajor = incidents.stream().anyMatch(IncidentData::isMajor);
 
         if (hasMajor)
             return 0.25;
@@ -819,81 +972,27 @@ public class PredictionService {
         return rec.toString();
     }
 
-    private double getDoubleValue(Map<String, Object> map, String key, double defaultValue) {
-        if (map == null || !map.containsKey(key))
-            return defaultValue;
-        Object value = map.get(key);
-        if (value instanceof Number)
-            return ((Number) value).doubleValue();
-        try {
-            return Double.parseDouble(value.toString());
-        } catch (Exception e) {
-            return defaultValue;
-        }
-    }
-
-    private String extractWeatherCondition(Map<String, Object> weatherData) {
-        if (weatherData == null)
-            return "Clear";
-
-        if (weatherData.containsKey("current")) {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> current = (Map<String, Object>) weatherData.get("current");
-            if (current != null && current.containsKey("condition")) {
-                return current.get("condition").toString();
-            }
-        }
-
-        if (weatherData.containsKey("condition")) {
-            return weatherData.get("condition").toString();
-        }
-
-        return "Clear";
-    }
-
-    private double extractTemperature(Map<String, Object> weatherData) {
-        if (weatherData == null)
-            return 20.0;
-
-        if (weatherData.containsKey("current")) {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> current = (Map<String, Object>) weatherData.get("current");
-            if (current != null && current.containsKey("temperature")) {
-                return getDoubleValue(current, "temperature", 20.0);
-            }
-        }
-
-        return getDoubleValue(weatherData, "temperature", 20.0);
-    }
-
-    private double extractVisibility(Map<String, Object> weatherData) {
-        if (weatherData == null)
-            return 10000;
-
-        if (weatherData.containsKey("current")) {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> current = (Map<String, Object>) weatherData.get("current");
-            if (current != null && current.containsKey("visibility")) {
-                return getDoubleValue(current, "visibility", 10000);
+    /**
+     * Forecast condition for the hour of departure, or the current one when the forecast does not cover it
+     */
+    private String conditionAt(WeatherData weatherData, LocalDateTime departure) {
+        HourlyForecast forecast = weatherData != null ? weatherData.hourlyIndex() : null;
+        if (forecast != null) {
+            int slot = forecast.slot(HourlyForecast.epochHour(departure));
+            if (slot != HourlyForecast.NO_FORECAST && forecast.condition(slot) != null) {
+                return forecast.condition(slot);
             }
         }
-
-        return getDoubleValue(weatherData, "visibility", 10000);
+        return currentConditions(weatherData).condition();
     }
 
-    private double extractWindSpeed(Map<String, Object> weatherData) {
-        if (weatherData == null)
-            return 0;
-
-        if (weatherData.containsKey("current")) {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> current = (Map<String, Object>) weatherData.get("current");
-            if (current != null && current.containsKey("windSpeed")) {
-                return getDoubleValue(current, "windSpeed", 0);
-            }
-        }
-
-        return getDoubleValue(weatherData, "windSpeed", 0);
+    /**
+     * Current conditions of the live weather, or defaults when missing
+     */
+    private WeatherConditions currentConditions(WeatherData weatherData) {
+        if (weatherData == null || weatherData.current() == null)
+            return DEFAULT_CONDITIONS;
+        return weatherData.current();
     }
 
     private String getTrafficConditionString(double delay, double baseDuration) {
@@ -908,27 +1007,18 @@ public class PredictionService {
         return "Fluide";
     }
 
-    private String getIncidentSeverity(List<Map<String, Object>> incidents) {
+    private String getIncidentSeverity(List<IncidentData> incidents) {
         if (incidents == null || incidents.isEmpty())
             return "NONE";
 
-        boolean hasMajor = incidents.stream()
-                .anyMatch(i -> {
-                    Object severity = i.get("severity");
-                    return severity != null &&
-                            (severity.toString().equalsIgnoreCase("HIGH") ||
-                                    severity.toString().equalsIgnoreCase("MAJOR"));
-                });
+        boolean hasMajor = incidents.stream().anyMatch(IncidentData::isMajor);
 
         if (hasMajor)
             return "MAJOR";
         return "MINOR";
     }
 
-    private Map<String, Object> createMockWeatherData() {
-        Map<String, Object> mock = new HashMap<>();
-        Map<String, Object> current = new HashMap<>();
-
+    private WeatherData createMockWeatherData() {
         String[] conditions = { "Clear", "Partly cloudy", "Overcast", "Rain", "Drizzle" };
         int[] weights = { 50, 25, 15, 7, 3 };
 
@@ -943,13 +1033,12 @@ public class PredictionService {
             }
         }
 
-        current.put("condition", condition);
-        current.put("temperature", 18 + random.nextDouble() * 12);
-        current.put("visibility", 8000 + random.nextInt(2000));
-        current.put("windSpeed", random.nextDouble() * 25);
-
-        mock.put("current", current);
-        return mock;
+        WeatherConditions current = new WeatherConditions(null, condition,
+                18 + random.nextDouble() * 12,
+                8000 + random.nextInt(2000),
+                random.nextDouble() * 25,
+                false);
+        return new WeatherData(current, Collections.emptyList());
     }
 
     // ========== LEGACY METHODS ==========
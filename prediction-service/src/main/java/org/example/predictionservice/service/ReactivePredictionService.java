@@ -0,0 +1,126 @@
+package org.example.predictionservice.service;
+
+import org.example.predictionservice.client.PayloadDecoder;
+import org.example.predictionservice.client.dto.IncidentData;
+import org.example.predictionservice.client.dto.RouteData;
+import org.example.predictionservice.client.dto.WeatherData;
+import org.example.predictionservice.model.EnrichedPrediction;
+import org.example.predictionservice.model.PredictionRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking variant of the enriched prediction pipeline.
+ * Route, weather (via WeatherCache) and incidents are fetched without blocking and
+ * combined with Mono.zip; the prediction itself is computed by PredictionService.
+ */
+@Service
+public class ReactivePredictionService {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(ReactivePredictionService.class);
+
+    private final WebClient webClient;
+    private final PredictionService predictionService;
+    private final WeatherCache weatherCache;
+    private final RouteCache routeCache;
+    private final PredictionMetrics metrics;
+    private final DownstreamResilience resilience;
+    private final Duration callTimeout;
+
+    public ReactivePredictionService(@LoadBalanced WebClient.Builder webClientBuilder, PredictionService predictionService,
+                                     WeatherCache weatherCache, RouteCache routeCache, PredictionMetrics metrics,
+                                     DownstreamResilience resilience,
+                                     @Value("${prediction.fetch.call-timeout-ms:2500}") long callTimeoutMs,
+                                     @Value("${prediction.fetch.request-budget-ms:4000}") long requestBudgetMs) {
+        this.webClient = webClientBuilder.build();
+        this.predictionService = predictionService;
+        this.weatherCache = weatherCache;
+        this.routeCache = routeCache;
+        this.metrics = metrics;
+        this.resilience = resilience;
+        // All calls run in parallel, so the request budget simply caps each call's deadline
+        this.callTimeout = Duration.ofMillis(Math.min(callTimeoutMs, requestBudgetMs));
+    }
+
+    public Mono<EnrichedPrediction> predictEnriched(PredictionRequest request) {
+        return analyzeEnrichedTrip(
+                request.getOrigin(),
+                request.getDestination(),
+                request.getDepartureDate(),
+                request.getDepartureTime(),
+                request.getTransportMode());
+    }
+
+    public Mono<EnrichedPrediction> analyzeEnrichedTrip(String origin, String destination, String departureDate,
+            String departureTime, String transportMode) {
+        log.info("Analyzing trip (reactive): {} -> {} at {} {} via {}", origin, destination, departureDate, departureTime, transportMode);
+
+        String mode = predictionService.normalizeMode(transportMode);
+        double[] coords = predictionService.weatherCoordinates(origin);
+
+        Mono<Optional<RouteData>> route = guard(Mono.fromFuture(routeCache.get(
+                predictionService.normalizeLocation(origin),
+                predictionService.normalizeLocation(destination),
+                mode,
+                predictionService.resolveDeparture(departureDate, departureTime),
+                () -> requestRouteData(origin, destination))), PredictionMetrics.STAGE_ROUTE, mode);
+
+        Mono<Optional<WeatherData>> weather = guard(
+                Mono.fromFuture(weatherCache.get(coords[0], coords[1])), PredictionMetrics.STAGE_WEATHER, mode);
+
+        Mono<Optional<List<IncidentData>>> incidents = guard(resilience.protect(DownstreamResilience.INCIDENT,
+                webClient.get()
+                        .uri(PredictionService.INCIDENT_SERVICE_URL)
+                        .retrieve()
+                        .bodyToMono(byte[].class)
+                        .timeout(callTimeout))
+                .flatMap(body -> Mono.fromCallable(() -> PayloadDecoder.decodeIncidents(body))),
+                PredictionMetrics.STAGE_INCIDENTS, mode);
+
+        return Mono.zip(route, weather, incidents)
+                .map(inputs -> predictionService.assemblePrediction(origin, destination, departureDate, departureTime, mode,
+                        inputs.getT1().orElse(null),
+                        inputs.getT2().orElse(null),
+                        inputs.getT3().orElse(null)));
+    }
+
+    private CompletableFuture<RouteData> requestRouteData(String origin, String destination) {
+        return resilience.protect(DownstreamResilience.TRAFFIC, webClient.get()
+                        .uri(PredictionService.TRAFFIC_SERVICE_URL, origin, destination)
+                        .retrieve()
+                        .bodyToMono(byte[].class)
+                        .timeout(callTimeout))
+                .flatMap(body -> Mono.fromCallable(() -> PayloadDecoder.decodeRoute(body)))
+                .onErrorResume(e -> {
+                    log.warn("Failed to fetch route data from TomTom: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .toFuture();
+    }
+
+    /**
+     * Apply the per-call deadline and turn failures into an empty result so the fallback kicks in.
+     * The stage timer starts on subscription and stops when a result (or its fallback) is available.
+     */
+    private <T> Mono<Optional<T>> guard(Mono<T> call, String input, String mode) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call.map(Optional::of)
+                    .timeout(callTimeout)
+                    .onErrorResume(e -> {
+                        log.warn("Failed to fetch {} data: {}", input, e.getMessage());
+                        return Mono.just(Optional.empty());
+                    })
+                    .defaultIfEmpty(Optional.empty())
+                    .doOnNext(result -> metrics.recordStage(input, mode, result.isEmpty(), start));
+        });
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.predictionservice.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.predictionservice.client.dto.RouteData;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Cache of TRAFFIC-SERVICE route results keyed by
+ * (normalized origin, normalized destination, mode, departure time bucket).
+ * <p>
+ * Congested routes expire sooner than free-flowing ones since their duration
+ * changes faster. Concurrent identical lookups share one in-flight fetch;
+ * failed fetches (null result) are not cached.
+ */
+@Component
+public class RouteCache {
+
+    private final long bucketMinutes;
+    private final AsyncCache<RouteKey, RouteData> cache;
+
+    public RouteCache(MeterRegistry meterRegistry,
+                      @Value("${prediction.route-cache.bucket-minutes:15}") long bucketMinutes,
+                      @Value("${prediction.route-cache.congested-ttl-seconds:120}") long congestedTtlSeconds,
+                      @Value("${prediction.route-cache.free-flow-ttl-seconds:600}") long freeFlowTtlSeconds,
+                      @Value("${prediction.route-cache.max-size:5000}") long maxSize) {
+        this.bucketMinutes = bucketMinutes;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TrafficAwareExpiry(
+                        TimeUnit.SECONDS.toNanos(congestedTtlSeconds),
+                        TimeUnit.SECONDS.toNanos(freeFlowTtlSeconds)))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "route");
+    }
+
+    /**
+     * Cached route for the trip, or the result of fetch when absent.
+     * The returned future is a copy, so callers may time it out or cancel it without affecting other waiters.
+     */
+    public CompletableFuture<RouteData> get(String origin, String destination, String mode,
+                                                      LocalDateTime departure,
+                                                      Supplier<CompletableFuture<RouteData>> fetch) {
+        long bucket = departure.toEpochSecond(ZoneOffset.UTC) / 60 / bucketMinutes;
+        RouteKey key = new RouteKey(origin, destination, mode, bucket);
+        return cache.get(key, (k, executor) -> fetch.get()).copy();
+    }
+
+    private static boolean isCongested(RouteData route) {
+        return route.riskLevel() != null && !"LOW".equalsIgnoreCase(route.riskLevel());
+    }
+
+    private record RouteKey(String origin, String destination, String mode, long departureBucket) {
+    }
+
+    private record TrafficAwareExpiry(long congestedTtlNanos, long freeFlowTtlNanos)
+            implements Expiry<RouteKey, RouteData> {
+
+        @Override
+        public long expireAfterCreate(RouteKey key, RouteData route, long currentTime) {
+            return isCongested(route) ? congestedTtlNanos : freeFlowTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(RouteKey key, RouteData route, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, route, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(RouteKey key, RouteData route, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
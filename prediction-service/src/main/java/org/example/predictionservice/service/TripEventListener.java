@@ -0,0 +1,112 @@
+package org.example.predictionservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Marks the monitored corridors touched by traffic, incident and weather events, so that only their trips
+ * are re-evaluated (see {@link TripMonitoringService#checkDueTrips()}).
+ * <p>
+ * Every instance consumes every event, since the affected trips may belong to any instance's partitions:
+ * each one joins its own consumer group, named after its lease instance id. Only events received while the
+ * instance runs matter, so the groups start at the latest offset and never commit (see
+ * {@code tripEventsListenerFactory}), and leave nothing behind on the broker when the instance stops.
+ * Events without coordinates are ignored and left to the periodic sweep.
+ * <p>
+ * Weather reports are published periodically whether or not the weather changed, so a report only marks
+ * corridors when its condition or visibility differs from the previous report for the same location; the
+ * first report seen for a location only records it.
+ */
+@Service
+public class TripEventListener {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(TripEventListener.class);
+
+    private static final String EVENTS_GROUP = "#{@monitoringLeaseCoordinator.instanceId}";
+    private static final String EVENTS_FACTORY = "tripEventsListenerFactory";
+
+    private final CorridorIndex corridorIndex;
+    private final ObjectMapper objectMapper;
+    private final double weatherRadiusKm;
+    // monitoring.events counters by topic, then by whether the event touched a corridor
+    private final Map<String, Map<Boolean, Counter>> eventCounters = new HashMap<>();
+    // Last condition and visibility reported per location (coordinates rounded to 0.01 degree)
+    private final Map<String, String> lastWeather = new ConcurrentHashMap<>();
+
+    public TripEventListener(CorridorIndex corridorIndex, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                             @Value("${prediction.monitoring.events.weather-radius-km:25}") double weatherRadiusKm) {
+        this.corridorIndex = corridorIndex;
+        this.objectMapper = objectMapper;
+        this.weatherRadiusKm = weatherRadiusKm;
+        for (String topic : List.of("traffic-updates", "incident-updates", "weather-updates")) {
+            Map<Boolean, Counter> byMatch = new HashMap<>();
+            for (boolean matched : new boolean[]{true, false}) {
+                byMatch.put(matched, Counter.builder("monitoring.events")
+                        .description("Events received by the trip monitor, by topic and whether they touched a corridor")
+                        .tag("topic", topic)
+                        .tag("matched", String.valueOf(matched))
+                        .register(meterRegistry));
+            }
+            eventCounters.put(topic, byMatch);
+        }
+    }
+
+    @KafkaListener(topics = "traffic-updates", groupId = EVENTS_GROUP, containerFactory = EVENTS_FACTORY,
+            properties = {"enable.auto.commit=false", "auto.offset.reset=latest"})
+    public void onTrafficUpdate(String message) {
+        onEvent("traffic-updates", message, 0);
+    }
+
+    @KafkaListener(topics = "incident-updates", groupId = EVENTS_GROUP, containerFactory = EVENTS_FACTORY,
+            properties = {"enable.auto.commit=false", "auto.offset.reset=latest"})
+    public void onIncidentUpdate(String message) {
+        onEvent("incident-updates", message, 0);
+    }
+
+    // A weather report covers an area rather than a point
+    @KafkaListener(topics = "weather-updates", groupId = EVENTS_GROUP, containerFactory = EVENTS_FACTORY,
+            properties = {"enable.auto.commit=false", "auto.offset.reset=latest"})
+    public void onWeatherUpdate(String message) {
+        onEvent("weather-updates", message, weatherRadiusKm);
+    }
+
+    private void onEvent(String topic, String message, double radiusKm) {
+        int marked = 0;
+        try {
+            JsonNode event = objectMapper.readTree(message);
+            JsonNode latitude = event.path("latitude");
+            JsonNode longitude = event.path("longitude");
+            if (latitude.isNumber() && longitude.isNumber()
+                    && (latitude.asDouble() != 0 || longitude.asDouble() != 0)) {
+                if (!"weather-updates".equals(topic) || weatherChanged(event, latitude.asDouble(), longitude.asDouble())) {
+                    marked = corridorIndex.markAffected(latitude.asDouble(), longitude.asDouble(), radiusKm);
+                }
+            } else {
+                log.debug("Ignoring {} event without coordinates", topic);
+            }
+        } catch (Exception e) {
+            log.warn("Unreadable {} event: {}", topic, e.getMessage());
+        }
+        eventCounters.get(topic).get(marked > 0).increment();
+    }
+
+    /**
+     * Record a weather report; true when a previous report for the location had another condition or visibility
+     */
+    private boolean weatherChanged(JsonNode event, double latitude, double longitude) {
+        String location = Math.round(latitude * 100) + ":" + Math.round(longitude * 100);
+        String weather = event.path("condition").asText("") + "|" + event.path("visibility").asText("");
+        String previous = lastWeather.put(location, weather);
+        return previous != null && !previous.equals(weather);
+    }
+}
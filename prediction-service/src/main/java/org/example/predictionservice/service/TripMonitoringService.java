@@ -1,71 +1,435 @@
 package org.example.predictionservice.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.example.predictionservice.model.EnrichedPrediction;
 import org.example.predictionservice.entity.MonitoredTrip;
 import org.example.predictionservice.model.PredictionRequest;
 import org.example.predictionservice.model.TripUpdateEvent;
 import org.example.predictionservice.repository.MonitoredTripRepository;
+import org.example.predictionservice.service.CorridorIndex.Corridor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 public class TripMonitoringService {
 
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(TripMonitoringService.class);
-
+    // Ids are handed out in blocks per instance, so a new trip may sit below the newest id already seen
+    // while another instance's block is still open: new trips are looked for from this many blocks back
+    private static final long NEW_TRIPS_LOOKBACK = 4L * MonitoredTrip.ID_ALLOCATION_SIZE;
 
     private final KafkaTemplate<String, Object> kafkaTemplate;
     private final MonitoredTripRepository tripRepository;
     private final PredictionService predictionService;
+    private final MonitoringLeaseCoordinator leases;
+    private final CorridorIndex corridorIndex;
+    private final TripSchedule schedule;
+    private final Executor monitorExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final int shards;
+    private final long cycleBudgetMs;
+    private final int pageSize;
+    private final int jdbcBatchSize;
+
+    private final AtomicBoolean cycleRunning = new AtomicBoolean();
+    // Newest trip id seen by a sweep or a new trip poll; -1 until the first sweep completed
+    private final AtomicLong newestTripId = new AtomicLong(-1);
+    // Keeps a slow tick from overlapping the next one
+    private final ReentrantLock checkLock = new ReentrantLock();
+    private final Timer cycleDuration;
+    private final Counter skippedTrips;
+    private final Counter overlappingCycles;
+    private final DistributionSummary cycleRoundTrips;
+    private final Counter eventTrips;
 
-    public TripMonitoringService(KafkaTemplate<String, Object> kafkaTemplate, MonitoredTripRepository tripRepository, PredictionService predictionService) {
+    public TripMonitoringService(KafkaTemplate<String, Object> kafkaTemplate, MonitoredTripRepository tripRepository,
+                                 PredictionService predictionService, MonitoringLeaseCoordinator leases, CorridorIndex corridorIndex,
+                                 TripSchedule schedule,
+                                 @Qualifier("tripMonitorExecutor") Executor monitorExecutor, TransactionTemplate transactionTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${prediction.monitoring.shards:8}") int shards,
+                                 @Value("${prediction.monitoring.cycle-budget-ms:50000}") long cycleBudgetMs,
+                                 @Value("${prediction.monitoring.page-size:500}") int pageSize,
+                                 @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:1}") int jdbcBatchSize) {
         this.kafkaTemplate = kafkaTemplate;
         this.tripRepository = tripRepository;
         this.predictionService = predictionService;
+        this.leases = leases;
+        this.corridorIndex = corridorIndex;
+        this.schedule = schedule;
+        this.monitorExecutor = monitorExecutor;
+        this.transactionTemplate = transactionTemplate;
+        this.shards = shards;
+        this.cycleBudgetMs = cycleBudgetMs;
+        this.pageSize = pageSize;
+        this.jdbcBatchSize = Math.max(1, jdbcBatchSize);
+        this.cycleDuration = Timer.builder("monitoring.cycle.duration")
+                .description("Duration of a trip monitoring cycle")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.skippedTrips = Counter.builder("monitoring.trips.skipped")
+                .description("Trips not reached by a sweep or check tick because its deadline was reached")
+                .register(meterRegistry);
+        this.overlappingCycles = Counter.builder("monitoring.cycles.skipped")
+                .description("Cycles not started because the previous one was still running")
+                .register(meterRegistry);
+        this.cycleRoundTrips = DistributionSummary.builder("monitoring.cycle.db.round-trips")
+                .description("Database statements sent by a monitoring sweep or check tick (queries and update batches)")
+                .register(meterRegistry);
+        this.eventTrips = Counter.builder("monitoring.events.trips")
+                .description("Trips made due because an event touched their corridor")
+                .register(meterRegistry);
+        Gauge.builder("monitoring.backlog", schedule, trips -> trips.overdue(Instant.now()))
+                .description("Trips whose scheduled check is overdue (prediction rate cap or slow checks)")
+                .register(meterRegistry);
+        Gauge.builder("monitoring.scheduled.trips", schedule, TripSchedule::size)
+                .description("Trips in this instance's check schedule")
+                .register(meterRegistry);
     }
 
-    // Check every 60 seconds
-    @Scheduled(fixedRate = 60000)
+    /**
+     * Periodic sweep over the active trips of the partitions leased to this instance
+     * (see {@link MonitoringLeaseCoordinator}), so each trip is monitored by one instance only.
+     * Active trips are read in keyset pages ({@code id > lastId ORDER BY id}) so only one page of
+     * entities is held at a time. New trips are added to the check schedule (due immediately) and to the
+     * corridor index; the checks themselves are run by {@link #checkDueTrips()}. A complete sweep also drops
+     * the trips that are no longer active, except those tracked since it started. Trips not reached before the
+     * cycle deadline wait for the next sweep, and a sweep never starts while the previous one is still running.
+     * Between sweeps, trips created on other instances are picked up by {@link #pickUpNewTrips()}.
+     */
+    @Scheduled(fixedRateString = "${prediction.monitoring.interval-ms:300000}")
     public void checkTrips() {
-        log.info("Checking monitored trips for updates...");
-        List<MonitoredTrip> activeTrips = tripRepository.findByIsActiveTrue();
+        if (!cycleRunning.compareAndSet(false, true)) {
+            log.warn("Previous monitoring cycle still running, skipping this one");
+            overlappingCycles.increment();
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            runCycle(start + TimeUnit.MILLISECONDS.toNanos(cycleBudgetMs));
+        } catch (Exception e) {
+            log.error("Monitoring cycle failed", e);
+        } finally {
+            cycleDuration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            cycleRunning.set(false);
+        }
+    }
 
-        for (MonitoredTrip trip : activeTrips) {
-            try {
-                // Re-calculate prediction
-                // We use "now" as the departure time for the check
-                String currentTime = LocalTime.now().toString().substring(0, 5); // HH:mm
+    private void runCycle(long deadline) {
+        log.info("Refreshing the schedule of monitored trips...");
+        Instant sweepStart = Instant.now();
+        long lastId = 0;
+        long deferred = 0;
+        long roundTrips = 0;
+        Set<Long> seenTripIds = new HashSet<>();
+        while (true) {
+            // Re-read per page, so partitions handed over to another instance stop being scheduled
+            Set<Integer> owned = leases.ownedPartitions();
+            if (owned.isEmpty()) {
+                log.info("No trip partitions leased to this instance");
+                break;
+            }
+            boolean allPartitions = owned.size() >= leases.partitionCount();
+            List<Long> partitions = owned.stream().map(Integer::longValue).toList();
+            if (System.nanoTime() - deadline > 0) {
+                deferred += allPartitions
+                        ? tripRepository.countByIsActiveTrueAndIdGreaterThan(lastId)
+                        : tripRepository.countActiveInPartitions(lastId, leases.partitionCount(), partitions);
+                roundTrips++;
+                break;
+            }
+            List<MonitoredTrip> page = allPartitions
+                    ? tripRepository.findByIsActiveTrueAndIdGreaterThanOrderByIdAsc(lastId, Limit.of(pageSize))
+                    : tripRepository.findActivePageInPartitions(lastId, leases.partitionCount(), partitions, PageRequest.of(0, pageSize));
+            roundTrips++;
+            if (page.isEmpty()) {
+                break;
+            }
+            lastId = page.get(page.size() - 1).getId();
+            Instant now = Instant.now();
+            for (MonitoredTrip trip : page) {
+                schedule.track(trip.getId(), departureOf(trip), now);
+                corridorIndex.add(trip);
+                seenTripIds.add(trip.getId());
+            }
+            if (page.size() < pageSize) {
+                break;
+            }
+        }
 
-                EnrichedPrediction prediction = predictionService.predictEnriched(
-                        PredictionRequest.builder()
-                                .origin(trip.getOrigin())
-                                .destination(trip.getDestination())
-                                .departureTime(currentTime)
-                                .build());
+        log.info("Monitoring sweep found {} trips, {} scheduled", seenTripIds.size(), schedule.size());
+        cycleRoundTrips.record(roundTrips);
+        newestTripId.accumulateAndGet(lastId, Math::max);
+        if (deferred == 0) {
+            // A complete sweep saw every active trip this instance monitors, apart from the ones created since
+            corridorIndex.retainOnly(schedule.retainOnly(seenTripIds, sweepStart));
+        } else {
+            log.warn("Monitoring cycle deadline reached, {} trips left for the next sweep", deferred);
+            skippedTrips.increment(deferred);
+        }
+    }
+
+    /**
+     * Schedule the active trips created since the last sweep or poll, so trips created on another instance
+     * reach the instance leasing their partition within seconds rather than at the next sweep. Reads the
+     * trips above the newest id seen, starting a few id blocks back; trips already scheduled are left as
+     * they are. Waits for the first sweep, which reads every trip anyway.
+     */
+    @Scheduled(fixedDelayString = "${prediction.monitoring.new-trips.interval-ms:5000}")
+    public void pickUpNewTrips() {
+        long newest = newestTripId.get();
+        if (newest < 0) {
+            return;
+        }
+        try {
+            long lastId = Math.max(0, newest - NEW_TRIPS_LOOKBACK);
+            while (true) {
+                Set<Integer> owned = leases.ownedPartitions();
+                if (owned.isEmpty()) {
+                    return;
+                }
+                List<Long> partitions = owned.stream().map(Integer::longValue).toList();
+                List<MonitoredTrip> page = owned.size() >= leases.partitionCount()
+                        ? tripRepository.findByIsActiveTrueAndIdGreaterThanOrderByIdAsc(lastId, Limit.of(pageSize))
+                        : tripRepository.findActivePageInPartitions(lastId, leases.partitionCount(), partitions, PageRequest.of(0, pageSize));
+                if (page.isEmpty()) {
+                    return;
+                }
+                lastId = page.get(page.size() - 1).getId();
+                newestTripId.accumulateAndGet(lastId, Math::max);
+                Instant now = Instant.now();
+                for (MonitoredTrip trip : page) {
+                    if (schedule.nextCheck(trip.getId()) == null) {
+                        corridorIndex.add(trip);
+                        schedule.track(trip.getId(), departureOf(trip), now);
+                    }
+                }
+                if (page.size() < pageSize) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            log.error("New trip poll failed", e);
+        }
+    }
+
+    /**
+     * Check the trips whose scheduled time has come (see {@link TripSchedule}), earliest first, within this
+     * instance's share of the global prediction rate. Trips on corridors touched by an event since the last
+     * tick (see {@link TripEventListener}) are made due first, so a burst of events on one corridor costs a
+     * single prediction. Trips are grouped by normalized origin/destination and each corridor is predicted
+     * once per tick, however many users watch it; every trip is then compared against the shared result.
+     * Corridors are split into shards processed concurrently, and the trips whose duration changed are
+     * written back in one transaction, as JDBC batches.
+     */
+    @Scheduled(fixedDelayString = "${prediction.monitoring.schedule.tick-ms:1000}")
+    public void checkDueTrips() {
+        if (!checkLock.tryLock()) {
+            return;
+        }
+        try {
+            Instant now = Instant.now();
+            if (corridorIndex.hasAffected()) {
+                Set<Long> affected = corridorIndex.drainAffectedTrips();
+                schedule.expedite(affected, now);
+                eventTrips.increment(affected.size());
+            }
+            Set<Integer> owned = leases.ownedPartitions();
+            if (owned.isEmpty()) {
+                return;
+            }
+            int permits = schedule.availablePredictions((double) owned.size() / leases.partitionCount(), now);
+            // One permit per corridor: all due trips of a corridor share its prediction
+            List<Long> due = schedule.pollDue(now, permits, corridorIndex::corridorKey);
+            if (due.isEmpty()) {
+                return;
+            }
+
+            List<MonitoredTrip> trips = new ArrayList<>(due.size());
+            Set<Long> found = new HashSet<>();
+            for (MonitoredTrip trip : tripRepository.findAllById(due)) {
+                found.add(trip.getId());
+                if (trip.isActive() && owned.contains((int) (trip.getId() % leases.partitionCount()))) {
+                    trips.add(trip);
+                } else {
+                    schedule.remove(trip.getId());
+                }
+            }
+            for (Long tripId : due) {
+                if (!found.contains(tripId)) {
+                    schedule.remove(tripId);
+                }
+            }
 
-                double newDuration = prediction.getPredictedDuration();
-                double oldDuration = trip.getLastDuration();
+            String currentTime = LocalTime.now().toString().substring(0, 5); // HH:mm
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(cycleBudgetMs);
+            Map<Corridor, EnrichedPrediction> predictions = new ConcurrentHashMap<>();
+            Map<Long, Double> changedDurations = new ConcurrentHashMap<>();
+            List<Long> skipped = processPage(trips, predictions, changedDurations, currentTime, deadline);
+            if (!skipped.isEmpty()) {
+                // Not checked: due again at the next tick rather than one interval later
+                log.warn("Check tick deadline reached, {} trips rescheduled", skipped.size());
+                skippedTrips.increment(skipped.size());
+                schedule.expedite(skipped, Instant.now());
+            }
+            schedule.consumePredictions(predictions.size());
+            cycleRoundTrips.record(1 + saveDurations(changedDurations));
+            log.debug("Checked {} due trips on {} corridors", trips.size(), predictions.size());
+        } catch (Exception e) {
+            log.error("Scheduled trip check failed", e);
+        } finally {
+            checkLock.unlock();
+        }
+    }
+
+    private static Instant departureOf(MonitoredTrip trip) {
+        return trip.getDepartureAt() != null ? trip.getDepartureAt().atZone(ZoneId.systemDefault()).toInstant() : null;
+    }
+
+    /**
+     * Write the new durations of a page in one transaction: the trips are loaded with a single IN query
+     * and flushed as batched updates (hibernate.jdbc.batch_size). Returns the number of statements sent.
+     */
+    private long saveDurations(Map<Long, Double> changedDurations) {
+        if (changedDurations.isEmpty()) {
+            return 0;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            for (MonitoredTrip trip : tripRepository.findAllById(changedDurations.keySet())) {
+                trip.setLastDuration(changedDurations.get(trip.getId()));
+            }
+        });
+        return 1 + (changedDurations.size() + jdbcBatchSize - 1) / jdbcBatchSize;
+    }
 
-                if (isSignificantChange(oldDuration, newDuration)) {
-                    String reason = determineReason(prediction);
+    /**
+     * Check one page of trips, its corridors spread round-robin over the shards.
+     * New durations are collected into changedDurations; returns the ids of the trips skipped
+     * because the deadline was reached.
+     */
+    private List<Long> processPage(List<MonitoredTrip> page, Map<Corridor, EnrichedPrediction> predictions,
+                            Map<Long, Double> changedDurations, String currentTime, long deadline) {
+        Map<Corridor, List<MonitoredTrip>> tripsByCorridor = new LinkedHashMap<>();
+        for (MonitoredTrip trip : page) {
+            tripsByCorridor.computeIfAbsent(CorridorIndex.corridorOf(trip), c -> new ArrayList<>()).add(trip);
+        }
 
-                    publishUpdate(trip, oldDuration, newDuration, reason);
+        int shardCount = Math.max(1, Math.min(shards, tripsByCorridor.size()));
+        List<List<Map.Entry<Corridor, List<MonitoredTrip>>>> shardCorridors = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shardCorridors.add(new ArrayList<>());
+        }
+        int next = 0;
+        for (Map.Entry<Corridor, List<MonitoredTrip>> corridor : tripsByCorridor.entrySet()) {
+            shardCorridors.get(next++ % shardCount).add(corridor);
+        }
 
-                    // Update DB
-                    trip.setLastDuration(newDuration);
-                    tripRepository.save(trip);
+        List<Long> skipped = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<?>[] shardRuns = new CompletableFuture<?>[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            List<Map.Entry<Corridor, List<MonitoredTrip>>> corridors = shardCorridors.get(i);
+            shardRuns[i] = CompletableFuture.runAsync(
+                    () -> processShard(corridors, predictions, changedDurations, currentTime, deadline, skipped),
+                    monitorExecutor);
+        }
+        // Shards check the deadline between corridors, so they finish shortly after it
+        CompletableFuture.allOf(shardRuns).join();
+        return skipped;
+    }
+
+    /**
+     * Process the corridors of one shard in order; the ids of trips skipped after the deadline are added to skipped
+     */
+    private void processShard(List<Map.Entry<Corridor, List<MonitoredTrip>>> corridors, Map<Corridor, EnrichedPrediction> predictions,
+                              Map<Long, Double> changedDurations, String currentTime, long deadline, List<Long> skipped) {
+        for (int c = 0; c < corridors.size(); c++) {
+            if (System.nanoTime() - deadline > 0) {
+                for (int r = c; r < corridors.size(); r++) {
+                    for (MonitoredTrip trip : corridors.get(r).getValue()) {
+                        skipped.add(trip.getId());
+                    }
                 }
+                return;
+            }
+            checkCorridor(corridors.get(c).getKey(), corridors.get(c).getValue(), predictions, changedDurations, currentTime);
+        }
+    }
 
+    private void checkCorridor(Corridor corridor, List<MonitoredTrip> trips, Map<Corridor, EnrichedPrediction> predictions,
+                               Map<Long, Double> changedDurations, String currentTime) {
+        EnrichedPrediction prediction = predictions.get(corridor);
+        if (prediction == null) {
+            try {
+                MonitoredTrip first = trips.get(0);
+                prediction = predictionService.predictEnriched(
+                        PredictionRequest.builder()
+                                .origin(first.getOrigin())
+                                .destination(first.getDestination())
+                                .departureTime(currentTime)
+                                .build());
+            } catch (Exception e) {
+                log.error("Failed to predict corridor {} -> {} ({} trips)",
+                        trips.get(0).getOrigin(), trips.get(0).getDestination(), trips.size(), e);
+                return;
+            }
+            predictions.put(corridor, prediction);
+        }
+
+        for (MonitoredTrip trip : trips) {
+            try {
+                applyPrediction(trip, prediction, changedDurations);
             } catch (Exception e) {
                 log.error("Failed to monitor trip ID: {}", trip.getId(), e);
             }
         }
     }
 
+    private void applyPrediction(MonitoredTrip trip, EnrichedPrediction prediction, Map<Long, Double> changedDurations) {
+        double newDuration = prediction.getPredictedDuration();
+        double oldDuration = trip.getLastDuration();
+
+        boolean significantChange = isSignificantChange(oldDuration, newDuration);
+        schedule.recordCheck(trip.getId(), significantChange, Instant.now());
+        if (significantChange) {
+            String reason = determineReason(prediction);
+
+            publishUpdate(trip, oldDuration, newDuration, reason);
+
+            // Written to the DB with the rest of the page
+            trip.setLastDuration(newDuration);
+            changedDurations.put(trip.getId(), newDuration);
+        }
+    }
+
     private boolean isSignificantChange(double oldDur, double newDur) {
         // Threshold: > 5 minutes difference
         return Math.abs(newDur - oldDur) > 5.0;
@@ -102,6 +466,18 @@ public class TripMonitoringService {
     }
 
     public MonitoredTrip startMonitoring(String origin, String destination, String userId) {
+        return startMonitoring(origin, destination, userId, null, null);
+    }
+
+    /**
+     * Monitor a trip; a departure date or time, when given, tightens its checks as departure approaches
+     */
+    public MonitoredTrip startMonitoring(String origin, String destination, String userId,
+                                         String departureDate, String departureTime) {
+        LocalDateTime departure = (departureDate == null || departureDate.isEmpty())
+                && (departureTime == null || departureTime.isEmpty())
+                ? null : predictionService.resolveDeparture(departureDate, departureTime);
+
         // Initial Calculation
         String currentTime = LocalTime.now().toString().substring(0, 5);
         EnrichedPrediction initial = predictionService.predictEnriched(
@@ -118,9 +494,16 @@ public class TripMonitoringService {
                 .userId(userId)
                 .originalDuration(initial.getPredictedDuration())
                 .lastDuration(initial.getPredictedDuration())
+                .departureAt(departure)
                 .isActive(true)
                 .build();
 
-        return tripRepository.save(trip);
+        MonitoredTrip saved = tripRepository.save(trip);
+        corridorIndex.add(saved);
+        // Just predicted: next check after the minimum interval
+        Instant now = Instant.now();
+        schedule.track(saved.getId(), departureOf(saved), now);
+        schedule.recordCheck(saved.getId(), true, now);
+        return saved;
     }
 }
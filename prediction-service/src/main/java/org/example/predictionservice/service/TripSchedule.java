@@ -0,0 +1,233 @@
+package org.example.predictionservice.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Per-trip check schedule: a priority queue of monitored trips keyed by their next check time.
+ * <p>
+ * Each trip has its own interval, between {@code min-interval-ms} and {@code max-interval-ms}. It is reset to
+ * the minimum after a significant change and multiplied by {@code backoff-factor} after each check without
+ * one. It never exceeds a quarter of the time left before the trip's departure, so trips about to leave are
+ * checked often while trips departing tomorrow are checked rarely.
+ * <p>
+ * Predictions are capped at {@code max-predictions-per-minute} across all instances: each instance gets the
+ * share matching the partitions it leases, as a token bucket holding one second of predictions. A permit
+ * covers one corridor, however many of its trips are due. Trips that are due but over the cap simply stay
+ * at the head of the queue.
+ */
+@Component
+public class TripSchedule {
+
+    private final Duration minInterval;
+    private final Duration maxInterval;
+    private final double backoffFactor;
+    private final double maxPredictionsPerMinute;
+
+    // Queue entries are never updated in place: a rescheduled trip gets a new entry, and entries whose time
+    // no longer matches the trip's next check are dropped when they reach the head
+    private final PriorityQueue<Due> queue = new PriorityQueue<>(Comparator.comparing(Due::at));
+    private final Map<Long, TripState> trips = new HashMap<>();
+
+    private double permits = -1;
+    private Instant refilledAt;
+
+    public TripSchedule(@Value("${prediction.monitoring.schedule.min-interval-ms:30000}") long minIntervalMs,
+                        @Value("${prediction.monitoring.schedule.max-interval-ms:900000}") long maxIntervalMs,
+                        @Value("${prediction.monitoring.schedule.backoff-factor:2.0}") double backoffFactor,
+                        @Value("${prediction.monitoring.schedule.max-predictions-per-minute:600}") double maxPredictionsPerMinute) {
+        this.minInterval = Duration.ofMillis(minIntervalMs);
+        this.maxInterval = Duration.ofMillis(Math.max(minIntervalMs, maxIntervalMs));
+        this.backoffFactor = backoffFactor;
+        this.maxPredictionsPerMinute = maxPredictionsPerMinute;
+    }
+
+    /**
+     * Start scheduling a trip, due immediately; updates the departure of an already scheduled trip
+     */
+    public synchronized void track(long tripId, Instant departure, Instant now) {
+        TripState state = trips.get(tripId);
+        if (state != null) {
+            state.departure = departure;
+            return;
+        }
+        state = new TripState(departure, minInterval, now);
+        trips.put(tripId, state);
+        schedule(tripId, state, now);
+    }
+
+    /**
+     * Make trips due now (e.g. an event touched their corridor); untracked ids are ignored
+     */
+    public synchronized void expedite(Collection<Long> tripIds, Instant now) {
+        for (Long tripId : tripIds) {
+            TripState state = trips.get(tripId);
+            if (state != null && state.nextCheck.isAfter(now)) {
+                schedule(tripId, state, now);
+            }
+        }
+    }
+
+    /**
+     * Take up to max due trips, earliest first. Each one is provisionally rescheduled one interval later,
+     * so a trip whose check fails is retried without being lost.
+     */
+    public List<Long> pollDue(Instant now, int max) {
+        return pollDue(now, max, tripId -> tripId);
+    }
+
+    /**
+     * Take due trips, earliest first, until they span maxGroups distinct groups (e.g. corridors predicted
+     * once for all their trips): trips of a group already taken come for free. Each one is provisionally
+     * rescheduled one interval later, so a trip whose check fails is retried without being lost.
+     */
+    public synchronized List<Long> pollDue(Instant now, int maxGroups, Function<Long, ?> groupOf) {
+        List<Long> due = new ArrayList<>();
+        Set<Object> groups = new HashSet<>();
+        while (!queue.isEmpty() && !queue.peek().at().isAfter(now)) {
+            Due head = queue.peek();
+            TripState state = trips.get(head.tripId());
+            if (state == null || !state.nextCheck.equals(head.at())) {
+                queue.poll();
+                continue;
+            }
+            Object group = groupOf.apply(head.tripId());
+            if (!groups.contains(group)) {
+                if (groups.size() >= maxGroups) {
+                    break;
+                }
+                groups.add(group);
+            }
+            queue.poll();
+            due.add(head.tripId());
+            schedule(head.tripId(), state, now.plus(boundedInterval(state, state.interval, now)));
+        }
+        return due;
+    }
+
+    /**
+     * Adapt a trip's interval to the outcome of its check and schedule the next one
+     */
+    public synchronized void recordCheck(long tripId, boolean significantChange, Instant now) {
+        TripState state = trips.get(tripId);
+        if (state == null) {
+            return;
+        }
+        Duration interval = significantChange
+                ? minInterval
+                : Duration.ofMillis((long) (state.interval.toMillis() * backoffFactor));
+        state.interval = boundedInterval(state, interval, now);
+        schedule(tripId, state, now.plus(state.interval));
+    }
+
+    public synchronized void remove(long tripId) {
+        trips.remove(tripId);
+    }
+
+    /**
+     * Forget trips that are no longer monitored by this instance: those not in tripIds, unless they were
+     * tracked at or after trackedSince (e.g. created while the sweep that collected tripIds was running).
+     * Returns the ids still tracked.
+     */
+    public synchronized Set<Long> retainOnly(Set<Long> tripIds, Instant trackedSince) {
+        trips.entrySet().removeIf(trip -> !tripIds.contains(trip.getKey())
+                && trip.getValue().trackedAt.isBefore(trackedSince));
+        if (queue.size() > 2 * trips.size() + 1024) {
+            compact();
+        }
+        return new HashSet<>(trips.keySet());
+    }
+
+    /**
+     * Predictions this instance may run now, for the given share (0..1) of the global cap
+     */
+    public synchronized int availablePredictions(double share, Instant now) {
+        double perSecond = maxPredictionsPerMinute * share / 60.0;
+        double capacity = Math.max(1.0, perSecond);
+        if (permits < 0) {
+            permits = capacity;
+        } else {
+            double elapsedSeconds = Duration.between(refilledAt, now).toNanos() / 1e9;
+            permits = Math.min(capacity, permits + Math.max(0, elapsedSeconds) * perSecond);
+        }
+        refilledAt = now;
+        return (int) permits;
+    }
+
+    public synchronized void consumePredictions(int predictions) {
+        permits = Math.max(0, permits - predictions);
+    }
+
+    /**
+     * Scheduled trips whose check time has passed
+     */
+    public synchronized long overdue(Instant now) {
+        return trips.values().stream().filter(state -> !state.nextCheck.isAfter(now)).count();
+    }
+
+    public synchronized int size() {
+        return trips.size();
+    }
+
+    public synchronized Instant nextCheck(long tripId) {
+        TripState state = trips.get(tripId);
+        return state != null ? state.nextCheck : null;
+    }
+
+    /**
+     * Interval clamped to [min, max], and to a quarter of the time left before departure.
+     * Once departure has passed the trip backs off like one without a departure.
+     */
+    private Duration boundedInterval(TripState state, Duration interval, Instant now) {
+        Duration bounded = interval.compareTo(maxInterval) > 0 ? maxInterval : interval;
+        if (state.departure != null && state.departure.isAfter(now)) {
+            Duration untilDeparture = Duration.between(now, state.departure).dividedBy(4);
+            if (bounded.compareTo(untilDeparture) > 0) {
+                bounded = untilDeparture;
+            }
+        }
+        return bounded.compareTo(minInterval) < 0 ? minInterval : bounded;
+    }
+
+    private void schedule(long tripId, TripState state, Instant at) {
+        state.nextCheck = at;
+        queue.add(new Due(tripId, at));
+        if (queue.size() > 2 * trips.size() + 1024) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        queue.clear();
+        trips.forEach((tripId, state) -> queue.add(new Due(tripId, state.nextCheck)));
+    }
+
+    private record Due(long tripId, Instant at) {
+    }
+
+    private static final class TripState {
+        private Instant departure;
+        private Duration interval;
+        private Instant nextCheck;
+        private final Instant trackedAt;
+
+        private TripState(Instant departure, Duration interval, Instant trackedAt) {
+            this.departure = departure;
+            this.interval = interval;
+            this.trackedAt = trackedAt;
+        }
+    }
+}
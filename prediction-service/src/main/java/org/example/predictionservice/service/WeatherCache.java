@@ -0,0 +1,93 @@
+package org.example.predictionservice.service;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.predictionservice.client.PayloadDecoder;
+import org.example.predictionservice.client.dto.WeatherData;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Live weather cache keyed by a rounded lat/lon cell.
+ * <p>
+ * Entries older than the refresh interval are still served while a single
+ * background call to METEO-SERVICE refreshes them (stale-while-revalidate);
+ * entries older than the TTL are dropped. Concurrent misses on the same cell
+ * share one in-flight call.
+ */
+@Component
+public class WeatherCache {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(WeatherCache.class);
+
+    private static final String METEO_SERVICE_COORDS_URL = "http://METEO-SERVICE/api/meteo/live?latitude={lat}&longitude={lon}";
+
+    private final WebClient webClient;
+    private final DownstreamResilience resilience;
+    private final double cellDegrees;
+    private final Duration callTimeout;
+    private final AsyncLoadingCache<GeoCell, WeatherData> cache;
+
+    public WeatherCache(@LoadBalanced WebClient.Builder webClientBuilder, MeterRegistry meterRegistry,
+                        DownstreamResilience resilience,
+                        @Value("${prediction.weather-cache.cell-degrees:0.05}") double cellDegrees,
+                        @Value("${prediction.weather-cache.refresh-after-seconds:300}") long refreshAfterSeconds,
+                        @Value("${prediction.weather-cache.ttl-seconds:900}") long ttlSeconds,
+                        @Value("${prediction.weather-cache.max-size:1000}") long maxSize,
+                        @Value("${prediction.fetch.call-timeout-ms:2500}") long callTimeoutMs) {
+        this.webClient = webClientBuilder.build();
+        this.resilience = resilience;
+        this.cellDegrees = cellDegrees;
+        this.callTimeout = Duration.ofMillis(callTimeoutMs);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .refreshAfterWrite(Duration.ofSeconds(refreshAfterSeconds))
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .buildAsync((cell, executor) -> load(cell));
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "weather");
+    }
+
+    /**
+     * Weather for the cell containing the given point.
+     * The returned future is a copy, so callers may time it out or cancel it without affecting other waiters.
+     */
+    public CompletableFuture<WeatherData> get(double latitude, double longitude) {
+        return get(cell(latitude, longitude));
+    }
+
+    CompletableFuture<WeatherData> get(GeoCell cell) {
+        return cache.get(cell).copy();
+    }
+
+    GeoCell cell(double latitude, double longitude) {
+        return new GeoCell(Math.round(latitude / cellDegrees), Math.round(longitude / cellDegrees));
+    }
+
+    private CompletableFuture<WeatherData> load(GeoCell cell) {
+        double lat = cell.latIndex() * cellDegrees;
+        double lon = cell.lonIndex() * cellDegrees;
+        log.debug("Weather cache miss for cell ({}, {})", lat, lon);
+        return resilience.protect(DownstreamResilience.METEO, webClient.get()
+                        .uri(METEO_SERVICE_COORDS_URL, lat, lon)
+                        .retrieve()
+                        .bodyToMono(byte[].class)
+                        .timeout(callTimeout))
+                .flatMap(body -> Mono.fromCallable(() -> PayloadDecoder.decodeWeather(body)))
+                .toFuture();
+    }
+
+    /**
+     * Grid cell index, i.e. coordinates divided by the cell size and rounded
+     */
+    record GeoCell(long latIndex, long lonIndex) {
+    }
+}
@@ -1,14 +1,24 @@
 package org.example.predictionservice.service;
 
 
+import org.example.predictionservice.client.dto.HourlyForecast;
+import org.example.predictionservice.client.dto.WeatherConditions;
+import org.example.predictionservice.client.dto.WeatherData;
 import org.example.predictionservice.model.WeatherImpactAnalysis;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
-import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service dedicated to calculating Weather Impact on road traffic.
@@ -25,165 +35,174 @@ import java.util.Map;
  * (Ref: "Highway Capacity Manual 2010")
  * - **Wind**: High crosswinds destabilize vehicles, especially trucks, forcing
  * general traffic slowing for safety.
+ * <p>
+ * The rules are calibrated from a properties file and compiled into a {@link WeatherImpactTable};
+ * the table is rebuilt when the file changes, without a restart.
  */
 @Service
 public class WeatherImpactService {
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(WeatherImpactService.class);
 
-    private static final double BASE_FRICTION_IMPACT_RAIN = 0.10; // 10% reduction in capacity/speed
-    private static final double BASE_VISIBILITY_IMPACT_FOG = 0.15; // 15% reduction
-    private static final double HEAVY_WEATHER_IMPACT = 0.25; // Significant reduction for storms
+    private static final int MAX_CACHED_CONDITIONS = 1024;
+
+    private final Resource calibration;
+    private final Map<String, Integer> conditionClasses = new ConcurrentHashMap<>();
+    private volatile WeatherImpactTable impactTable;
+    private volatile long calibrationModified;
+
+    public WeatherImpactService(
+            @Value("${prediction.weather-impact.calibration:classpath:weather/impact-calibration.properties}") Resource calibration) {
+        this.calibration = calibration;
+        try {
+            loadCalibration();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read weather impact calibration " + calibration.getDescription(), e);
+        }
+    }
 
     /**
      * Calculates weather impact for a specific departure time using hourly forecast
      * if available.
      * 
-     * @param weatherData   Raw weather data from MeteoService (LiveWeatherResponse
-     *                      structure)
+     * @param weatherData   Live weather decoded from MeteoService
      * @param departureTime Requested departure time (HH:mm)
      * @return Structured analysis
      */
-    public WeatherImpactAnalysis analyzeImpact(Map<String, Object> weatherData, String departureTime) {
-        log.info("Analyzing weather impact for time: {}", departureTime);
+    public WeatherImpactAnalysis analyzeImpact(WeatherData weatherData, String departureTime) {
+        log.debug("Analyzing weather impact for time: {}", departureTime);
 
         // 1. Extract specific weather conditions for the target hour
-        WeatherSnaphot snapshot = extractWeatherForHour(weatherData, departureTime);
-
-        // 2. Apply Physics-based Rules
-        return calculatePhysicsBasedImpact(snapshot);
-    }
-
-    private WeatherImpactAnalysis calculatePhysicsBasedImpact(WeatherSnaphot snapshot) {
-        double modifier = 0.0;
-        StringBuilder reason = new StringBuilder();
-
-        // Rule 1: Precipitation Impact (Friction Reduction)
-        if (snapshot.condition != null) {
-            String cond = snapshot.condition.toLowerCase();
-            if (cond.contains("rain") || cond.contains("pluie")) {
-                modifier += BASE_FRICTION_IMPACT_RAIN; // +10%
-                reason.append("Pluie (adhérence réduite). ");
-            } else if (cond.contains("storm") || cond.contains("orage")) {
-                modifier += HEAVY_WEATHER_IMPACT; // +25%
-                reason.append("Tempête (danger élevé). ");
-            } else if (cond.contains("snow") || cond.contains("neige")) {
-                modifier += 0.30; // +30% (Severe friction loss)
-                reason.append("Neige (glissance majeure). ");
+        if (weatherData == null) {
+            return calculatePhysicsBasedImpact("Unknown", 10000, 0, false);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int targetHour = now.getHour();
+        if (departureTime != null && !departureTime.isBlank()) {
+            targetHour = parseHour(departureTime);
+            if (targetHour < 0) {
+                log.warn("Invalid departure time for weather lookup: {}", departureTime);
+                return calculatePhysicsBasedImpact(WeatherConditions.DEFAULT_CONDITION, 10000, 10, false);
             }
         }
+        // A bare time is taken as today
+        return analyzeImpactAt(weatherData, now.toLocalDate().atTime(targetHour, 0));
+    }
 
-        // Rule 2: Visibility Impact (Visual Range reduction)
-        // HCM 2010 suggests significant speed drops when visibility < 0.5km
-        if (snapshot.visibility < 1000 && snapshot.visibility > 0) {
-            double visImpact = (1000 - snapshot.visibility) / 1000.0 * 0.20; // Up to 20%
-            modifier += visImpact;
-            reason.append(String.format("Visibilité faible (%.1fkm). ", snapshot.visibility / 1000.0));
-        } else if (snapshot.hasFog) {
-            modifier += BASE_VISIBILITY_IMPACT_FOG;
-            reason.append("Brouillard présent. ");
+    /**
+     * Calculates weather impact for a departure date-time using the hourly forecast of that hour,
+     * or the current weather when the forecast does not cover it.
+     *
+     * @param weatherData Live weather decoded from MeteoService
+     * @param departure   Departure date-time, in the forecast's local time
+     * @return Structured analysis
+     */
+    public WeatherImpactAnalysis analyzeImpactAt(WeatherData weatherData, LocalDateTime departure) {
+        if (weatherData == null) {
+            return calculatePhysicsBasedImpact("Unknown", 10000, 0, false);
         }
 
-        // Rule 3: Wind Impact (Stability)
-        if (snapshot.windSpeed > 50) {
-            modifier += 0.05 + ((snapshot.windSpeed - 50) / 100.0 * 0.10);
-            reason.append(String.format("Vent fort (%.0f km/h). ", snapshot.windSpeed));
+        // Matching hour in the hourly forecast
+        HourlyForecast forecast = weatherData.hourlyIndex();
+        int slot = forecast != null ? forecast.slot(HourlyForecast.epochHour(departure)) : HourlyForecast.NO_FORECAST;
+        if (slot != HourlyForecast.NO_FORECAST) {
+            log.debug("Found matching hourly forecast for {}", departure);
+            // 2. Apply Physics-based Rules
+            return calculatePhysicsBasedImpact(forecast.condition(slot), forecast.visibility(slot),
+                    forecast.windSpeed(slot), forecast.hasFog(slot));
         }
 
-        // Cap modifier to realistic max (e.g., 50% increase max for open road models)
-        double finalModifier = Math.min(modifier, 0.50);
+        // Fallback to Current
+        WeatherConditions current = weatherData.current();
+        if (current != null) {
+            log.debug("No hourly match found, using current weather.");
+            return calculatePhysicsBasedImpact(current.condition(), current.visibility(), current.windSpeed(), current.hasFog());
+        }
+        return calculatePhysicsBasedImpact(WeatherConditions.DEFAULT_CONDITION, 10000, 10, false);
+    }
 
-        return WeatherImpactAnalysis.builder()
-                .impactModifier(finalModifier)
-                .impactPercentage((int) Math.round(finalModifier * 100))
-                .impactLevel(determineLevel(finalModifier))
-                .explanation(reason.length() > 0 ? reason.toString().trim() : "Conditions optimales.")
-                .build();
+    /**
+     * Hour of an "HH:mm" time, or -1 when it is not one
+     */
+    private static int parseHour(String time) {
+        if (time.length() != 5 || time.charAt(2) != ':') {
+            return -1;
+        }
+        int hour = digit(time, 0) * 10 + digit(time, 1);
+        int minute = digit(time, 3) * 10 + digit(time, 4);
+        return hour >= 0 && hour < 24 && minute >= 0 && minute < 60 ? hour : -1;
     }
 
-    private String determineLevel(double modifier) {
-        if (modifier >= 0.25)
-            return "ÉLEVÉ";
-        if (modifier >= 0.10)
-            return "MOYEN";
-        if (modifier > 0)
-            return "FAIBLE";
-        return "AUCUN";
+    private static int digit(String s, int i) {
+        char c = s.charAt(i);
+        return c >= '0' && c <= '9' ? c - '0' : -100;
     }
 
-    // --- Temporal Logic Helper Classes & Methods ---
+    private WeatherImpactAnalysis calculatePhysicsBasedImpact(String condition, double visibility, double windSpeed,
+                                                              boolean hasFog) {
+        return impactTable.lookup(conditionClass(condition), visibility, windSpeed, hasFog);
+    }
 
-    private WeatherSnaphot extractWeatherForHour(Map<String, Object> weatherData, String targetTimeStr) {
-        if (weatherData == null)
-            return new WeatherSnaphot("Unknown", 10000, 0, false);
+    /**
+     * Precipitation class of a condition name (Rule 1), cached per distinct name
+     */
+    private int conditionClass(String condition) {
+        if (condition == null) {
+            return WeatherImpactTable.CLEAR;
+        }
+        Integer cached = conditionClasses.get(condition);
+        if (cached != null) {
+            return cached;
+        }
+        String cond = condition.toLowerCase();
+        int conditionClass;
+        if (cond.contains("rain") || cond.contains("pluie")) {
+            conditionClass = WeatherImpactTable.RAIN;
+        } else if (cond.contains("storm") || cond.contains("orage")) {
+            conditionClass = WeatherImpactTable.STORM;
+        } else if (cond.contains("snow") || cond.contains("neige")) {
+            conditionClass = WeatherImpactTable.SNOW;
+        } else {
+            conditionClass = WeatherImpactTable.CLEAR;
+        }
+        if (conditionClasses.size() < MAX_CACHED_CONDITIONS) {
+            conditionClasses.put(condition, conditionClass);
+        }
+        return conditionClass;
+    }
 
+    /**
+     * Recompile the impact table when the calibration file changed since it was last read
+     */
+    @Scheduled(fixedDelayString = "${prediction.weather-impact.reload-ms:30000}")
+    public void reloadCalibration() {
         try {
-            // Target hour
-            int targetHour = LocalTime.now().getHour();
-            if (targetTimeStr != null && !targetTimeStr.isBlank()) {
-                targetHour = LocalTime.parse(targetTimeStr, DateTimeFormatter.ofPattern("HH:mm")).getHour();
-            }
-
-            // Check Hourly Forecast availability
-            if (weatherData.containsKey("hourlyForecast")) {
-                List<Map<String, Object>> hourly = (List<Map<String, Object>>) weatherData.get("hourlyForecast");
-
-                // Find matching hour (closest)
-                // Assuming hourly list is sorted or we search for the specific hour match
-                for (Map<String, Object> h : hourly) {
-                    if (h.containsKey("timestamp")) {
-                        LocalDateTime ts = LocalDateTime.parse(getTimestampStr(h.get("timestamp")));
-                        if (ts.getHour() == targetHour && ts.getDayOfYear() == LocalDateTime.now().getDayOfYear()) {
-                            log.info("Found matching hourly forecast for {}:00", targetHour);
-                            return mapSnapshot(h);
-                        }
-                    }
-                }
-            }
-
-            // Fallback to Current
-            if (weatherData.containsKey("current")) {
-                log.info("No hourly match found, using current weather.");
-                return mapSnapshot((Map<String, Object>) weatherData.get("current"));
+            long modified = calibration.lastModified();
+            if (modified != calibrationModified) {
+                loadCalibration();
+                log.info("Weather impact calibration reloaded from {}", calibration.getDescription());
             }
-
         } catch (Exception e) {
-            log.warn("Error parsing hourly weather data: {}", e.getMessage());
+            log.warn("Could not reload weather impact calibration from {}, keeping the current one: {}",
+                    calibration.getDescription(), e.getMessage());
         }
-
-        // Fallback default
-        return new WeatherSnaphot("Clear", 10000, 10, false);
     }
 
-    private String getTimestampStr(Object tsObj) {
-        // Handle potential array format [year, month, day, hour, min]
-        if (tsObj instanceof List) {
-            List<?> list = (List<?>) tsObj;
-            if (list.size() >= 5) {
-                return String.format("%04d-%02d-%02dT%02d:%02d:00",
-                        list.get(0), list.get(1), list.get(2), list.get(3), list.get(4));
+    private void loadCalibration() throws IOException {
+        Properties properties = new Properties();
+        long modified = 0;
+        if (calibration.exists()) {
+            try (InputStream in = calibration.getInputStream()) {
+                properties.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+            }
+            try {
+                modified = calibration.lastModified();
+            } catch (IOException e) {
+                // Not a file (e.g. inside a jar): loaded once, never reloaded
             }
+        } else {
+            log.warn("Weather impact calibration {} not found, using the defaults", calibration.getDescription());
         }
-        return tsObj.toString();
-    }
-
-    private WeatherSnaphot mapSnapshot(Map<String, Object> data) {
-        String cond = (String) data.getOrDefault("condition", "Clear");
-        double vis = getDouble(data, "visibility", 10000);
-        double wind = getDouble(data, "windSpeed", 0);
-        boolean fog = (boolean) data.getOrDefault("hasFog", false);
-        return new WeatherSnaphot(cond, vis, wind, fog);
-    }
-
-    private double getDouble(Map<String, Object> m, String k, double def) {
-        Object v = m.get(k);
-        if (v instanceof Number)
-            return ((Number) v).doubleValue();
-        return def;
-    }
-
-    /**
-     * Internal DTO for normalized weather data
-     */
-    private record WeatherSnaphot(String condition, double visibility, double windSpeed, boolean hasFog) {
+        impactTable = WeatherImpactTable.compile(properties);
+        calibrationModified = modified;
     }
 }
@@ -0,0 +1,129 @@
+package org.example.predictionservice.service;
+
+import org.example.predictionservice.model.WeatherImpactAnalysis;
+
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Weather impact model compiled into a lookup table over
+ * (precipitation class, visibility bucket, fog, wind bucket).
+ * <p>
+ * Each cell holds a shared, immutable {@link WeatherImpactAnalysis} with its modifier, level and interned
+ * explanation, so an analysis is a few index computations and one array read. Visibility below the
+ * low-visibility threshold is bucketed by 100 m and wind above the wind threshold by 1 km/h, which is the
+ * precision the explanations are printed with; the modifier of a cell is computed for the bucket's value.
+ * Visibility buckets are floored, so a reading just under the threshold (e.g. 950 m) still counts as low.
+ */
+final class WeatherImpactTable {
+
+    static final int CLEAR = 0;
+    static final int RAIN = 1;
+    static final int STORM = 2;
+    static final int SNOW = 3;
+    private static final int CONDITIONS = 4;
+
+    private static final int MAX_WIND_KMH = 250;
+
+    private final double visibilityThreshold;
+    private final double windThreshold;
+    // Low-visibility buckets 0..lowBuckets-1, then one bucket for good (or unknown) visibility
+    private final int visibilityBuckets;
+    // Wind bucket 0 is calm, then one bucket per km/h above the threshold
+    private final int windBuckets;
+    private final WeatherImpactAnalysis[] cells;
+
+    private WeatherImpactTable(double visibilityThreshold, double windThreshold, int visibilityBuckets, int windBuckets) {
+        this.visibilityThreshold = visibilityThreshold;
+        this.windThreshold = windThreshold;
+        this.visibilityBuckets = visibilityBuckets;
+        this.windBuckets = windBuckets;
+        this.cells = new WeatherImpactAnalysis[CONDITIONS * visibilityBuckets * 2 * windBuckets];
+    }
+
+    /**
+     * Compile the calibration (see weather/impact-calibration.properties); missing keys keep their defaults
+     */
+    static WeatherImpactTable compile(Properties calibration) {
+        double rain = number(calibration, "rain.modifier", 0.10);
+        double storm = number(calibration, "storm.modifier", 0.25);
+        double snow = number(calibration, "snow.modifier", 0.30);
+        double visibilityThreshold = number(calibration, "low-visibility.threshold-m", 1000);
+        double visibilityMax = number(calibration, "low-visibility.max-modifier", 0.20);
+        double fog = number(calibration, "fog.modifier", 0.15);
+        double windThreshold = Math.rint(number(calibration, "wind.threshold-kmh", 50));
+        double windBase = number(calibration, "wind.base-modifier", 0.05);
+        double windSlope = number(calibration, "wind.modifier-per-100kmh", 0.10);
+        double cap = number(calibration, "modifier.cap", 0.50);
+        double levelHigh = number(calibration, "level.high", 0.25);
+        double levelMedium = number(calibration, "level.medium", 0.10);
+
+        int lowBuckets = (int) Math.round(visibilityThreshold / 100) + 1;
+        int windBuckets = (int) Math.max(1, MAX_WIND_KMH - windThreshold + 2);
+        WeatherImpactTable table = new WeatherImpactTable(visibilityThreshold, windThreshold, lowBuckets + 1, windBuckets);
+
+        String[] conditionReasons = {"", "Pluie (adhérence réduite). ", "Tempête (danger élevé). ", "Neige (glissance majeure). "};
+        double[] conditionModifiers = {0, rain, storm, snow};
+        for (int condition = 0; condition < CONDITIONS; condition++) {
+            for (int v = 0; v <= lowBuckets; v++) {
+                for (int f = 0; f < 2; f++) {
+                    for (int w = 0; w < windBuckets; w++) {
+                        // Rule 1: Precipitation Impact (Friction Reduction)
+                        double modifier = conditionModifiers[condition];
+                        StringBuilder reason = new StringBuilder(conditionReasons[condition]);
+
+                        // Rule 2: Visibility Impact (Visual Range reduction)
+                        // HCM 2010 suggests significant speed drops when visibility < 0.5km
+                        if (v < lowBuckets) {
+                            double visibility = Math.min(v * 100.0, visibilityThreshold);
+                            modifier += (visibilityThreshold - visibility) / visibilityThreshold * visibilityMax;
+                            reason.append(String.format(Locale.ROOT, "Visibilité faible (%.1fkm). ", visibility / 1000.0));
+                        } else if (f == 1) {
+                            modifier += fog;
+                            reason.append("Brouillard présent. ");
+                        }
+
+                        // Rule 3: Wind Impact (Stability)
+                        if (w > 0) {
+                            double wind = windThreshold + w - 1;
+                            modifier += windBase + ((wind - windThreshold) / 100.0 * windSlope);
+                            reason.append(String.format(Locale.ROOT, "Vent fort (%.0f km/h). ", wind));
+                        }
+
+                        // Cap modifier to realistic max (e.g., 50% increase max for open road models)
+                        double finalModifier = Math.min(modifier, cap);
+                        String level = finalModifier >= levelHigh ? "ÉLEVÉ"
+                                : finalModifier >= levelMedium ? "MOYEN"
+                                : finalModifier > 0 ? "FAIBLE" : "AUCUN";
+                        table.cells[table.index(condition, v, f, w)] = WeatherImpactAnalysis.builder()
+                                .impactModifier(finalModifier)
+                                .impactPercentage((int) Math.round(finalModifier * 100))
+                                .impactLevel(level)
+                                .explanation(reason.length() > 0 ? reason.toString().trim().intern() : "Conditions optimales.")
+                                .build();
+                    }
+                }
+            }
+        }
+        return table;
+    }
+
+    WeatherImpactAnalysis lookup(int condition, double visibility, double windSpeed, boolean hasFog) {
+        int v = visibility < visibilityThreshold && visibility > 0
+                ? (int) (visibility / 100)
+                : visibilityBuckets - 1;
+        int w = windSpeed > windThreshold
+                ? (int) Math.min(Math.round(windSpeed) - windThreshold + 1, windBuckets - 1)
+                : 0;
+        return cells[index(condition, v, hasFog ? 1 : 0, w)];
+    }
+
+    private int index(int condition, int visibilityBucket, int fog, int windBucket) {
+        return ((condition * visibilityBuckets + visibilityBucket) * 2 + fog) * windBuckets + windBucket;
+    }
+
+    private static double number(Properties calibration, String key, double defaultValue) {
+        String value = calibration.getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : Double.parseDouble(value.trim());
+    }
+}
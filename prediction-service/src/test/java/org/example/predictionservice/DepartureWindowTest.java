@@ -0,0 +1,77 @@
+package org.example.predictionservice;
+
+import org.example.predictionservice.model.DepartureSlot;
+import org.example.predictionservice.model.DepartureWindow;
+import org.example.predictionservice.service.PredictionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DepartureWindowTest {
+
+    private static final String ROUTE_JSON = "{\"durationMinutes\":20.0,\"distanceKm\":8.0,\"trafficDelayMinutes\":0.0,"
+            + "\"riskLevel\":\"LOW\",\"routeGeometry\":[]}";
+    // Clear now and at 23:00, fog at midnight on the next day, clear again at 01:00
+    private static final String WEATHER_JSON = "{\"current\":{\"temperature\":14.0,\"windSpeed\":5.0,\"condition\":\"Clear\","
+            + "\"visibility\":10000.0,\"hasFog\":false},\"hourlyForecast\":["
+            + "{\"timestamp\":\"2024-01-02T23:00:00\",\"temperature\":13.0,\"windSpeed\":5.0,\"condition\":\"Clear\",\"visibility\":10000.0,\"hasFog\":false},"
+            + "{\"timestamp\":\"2024-01-03T00:00:00\",\"temperature\":12.0,\"windSpeed\":5.0,\"condition\":\"Fog\",\"visibility\":300.0,\"hasFog\":true},"
+            + "{\"timestamp\":\"2024-01-03T01:00:00\",\"temperature\":12.0,\"windSpeed\":5.0,\"condition\":\"Clear\",\"visibility\":10000.0,\"hasFog\":false}"
+            + "],\"dailyForecast\":[]}";
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private PredictionService predictionService() {
+        return PredictionServiceFixture.respondingWith(uri -> {
+            String path = uri.getPath();
+            if (path.startsWith("/api/traffic/route")) {
+                return ROUTE_JSON;
+            }
+            return path.startsWith("/api/meteo/live") ? WEATHER_JSON : "[]";
+        }).build(executor);
+    }
+
+    @Test
+    public void testWindowCrossingMidnightUsesNextDayForecast() {
+        PredictionService service = predictionService();
+
+        // When departures from 23:00 on January 2nd are swept over two hours
+        DepartureWindow window = service.optimizeDeparture("maarif", "technopark", "2024-01-02", "23:00", 120, 30, "driving");
+
+        // Then the slots after midnight read the fog forecast of January 3rd:
+        // 20 min route + 10% historical bias, + 8 min while foggy
+        List<DepartureSlot> slots = window.getSlots();
+        assertEquals(List.of("23:00", "23:30", "00:00", "00:30", "01:00"),
+                slots.stream().map(DepartureSlot::getDepartureTime).toList());
+        assertEquals(22.0, slots.get(1).getPredictedDuration(), 1e-9);
+        assertEquals(30.0, slots.get(2).getPredictedDuration(), 1e-9);
+        assertEquals(30.0, slots.get(3).getPredictedDuration(), 1e-9);
+        assertEquals(22.0, slots.get(4).getPredictedDuration(), 1e-9);
+        assertNotEquals("AUCUN", slots.get(2).getWeatherImpactLevel());
+        assertEquals("AUCUN", slots.get(4).getWeatherImpactLevel());
+        assertEquals("23:00", window.getBestSlot().getDepartureTime());
+    }
+
+    @Test
+    public void testSlotMatchesSinglePredictionAtSameDeparture() {
+        PredictionService service = predictionService();
+
+        // When a slot after midnight and a single prediction for the same departure are computed
+        DepartureWindow window = service.optimizeDeparture("maarif", "technopark", "2024-01-02", "23:00", 120, 30, "driving");
+        double single = service.analyzeEnrichedTrip("maarif", "technopark", "2024-01-03", "00:30", "driving")
+                .getPredictedDuration();
+
+        // Then both apply the same weather delta
+        assertEquals(single, window.getSlots().get(3).getPredictedDuration(), 1e-9);
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.predictionservice;
+
+import org.example.predictionservice.service.DistanceMatrix;
+import org.example.predictionservice.service.LocationGazetteer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DistanceMatrixTest {
+
+    private final LocationGazetteer gazetteer = new LocationGazetteer(new ClassPathResource("gazetteer/locations.csv"));
+    private final DistanceMatrix matrix = new DistanceMatrix(gazetteer, new ClassPathResource("gazetteer/distances.csv"));
+
+    private double distance(LocationGazetteer places, DistanceMatrix distances, String from, String to) {
+        return distances.distance(places.lookup(from), places.lookup(to));
+    }
+
+    @Test
+    public void testDirectEdgeIsKeptAsEntered() {
+        // Given maarif,technopark,8.0 in distances.csv
+        // Then both directions return the entered distance
+        assertEquals(8.0, distance(gazetteer, matrix, "maarif", "technopark"));
+        assertEquals(8.0, distance(gazetteer, matrix, "technopark", "maarif"));
+    }
+
+    @Test
+    public void testTransitivePathIsShortestRoadDistance() {
+        // Given no direct road between racine and technopark
+        // Then the distance is the shortest path over the roads: racine -> maarif (1.0) -> technopark (8.0)
+        assertEquals(9.0, distance(gazetteer, matrix, "racine", "technopark"), 1e-9);
+    }
+
+    @Test
+    public void testDetourFallsBackToStraightLineEstimate(@TempDir Path dir) throws Exception {
+        // Given three places 0.1 degree apart on the equator (about 11.1 km) joined by two 100 km roads,
+        // and a fourth place with no road at all
+        Path locations = dir.resolve("locations.csv");
+        Files.writeString(locations, "west,0.0,0.0\ncentre,0.0,0.1\neast,0.0,0.2\nisland,0.1,0.0\n");
+        Path roads = dir.resolve("distances.csv");
+        Files.writeString(roads, "west,centre,100\ncentre,east,100\n");
+        LocationGazetteer places = new LocationGazetteer(new FileSystemResource(locations));
+        DistanceMatrix distances = new DistanceMatrix(places, new FileSystemResource(roads));
+
+        // When the only path (200 km) exceeds 1.5 x the road estimate (22.24 km x 1.3 = 28.9 km)
+        // Then the road estimate is used instead, while entered roads stay authoritative
+        assertEquals(28.91, distance(places, distances, "west", "east"), 0.05);
+        assertEquals(100.0, distance(places, distances, "west", "centre"));
+        // And unreachable places get the estimate too
+        assertEquals(14.46, distance(places, distances, "west", "island"), 0.05);
+    }
+}
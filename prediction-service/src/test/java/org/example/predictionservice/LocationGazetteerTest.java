@@ -0,0 +1,49 @@
+package org.example.predictionservice;
+
+import org.example.predictionservice.service.LocationGazetteer;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocationGazetteerTest {
+
+    private final LocationGazetteer gazetteer = new LocationGazetteer(new ClassPathResource("gazetteer/locations.csv"));
+
+    @Test
+    public void testNormalize() {
+        assertEquals("casa port", LocationGazetteer.normalize("  Casa-   Port! "));
+        assertEquals("ain diab", LocationGazetteer.normalize("Ain\tDiab"));
+        assertEquals("", LocationGazetteer.normalize(null));
+    }
+
+    @Test
+    public void testExactLookup() {
+        int id = gazetteer.lookup("technopark");
+
+        assertNotEquals(LocationGazetteer.NOT_FOUND, id);
+        assertEquals("technopark", gazetteer.name(id));
+        assertEquals(33.5167, gazetteer.coordinates(id)[0]);
+    }
+
+    @Test
+    public void testQueryContainingKnownName() {
+        // Longest contained name wins over shorter ones ("casablanca" vs "anfa")
+        int id = gazetteer.lookup("quartier anfa casablanca");
+
+        assertEquals("casablanca", gazetteer.name(id));
+    }
+
+    @Test
+    public void testQueryContainedInKnownName() {
+        int id = gazetteer.lookup("maarou");
+
+        assertEquals("sidi maarouf", gazetteer.name(id));
+    }
+
+    @Test
+    public void testUnknownLocation() {
+        assertEquals(LocationGazetteer.NOT_FOUND, gazetteer.lookup("zzz"));
+        assertEquals(LocationGazetteer.NOT_FOUND, gazetteer.lookup(""));
+    }
+}
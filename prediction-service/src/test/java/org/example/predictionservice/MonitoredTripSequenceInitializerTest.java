@@ -0,0 +1,63 @@
+package org.example.predictionservice;
+
+import org.example.predictionservice.config.MonitoredTripSequenceInitializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class MonitoredTripSequenceInitializerTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final MonitoredTripSequenceInitializer initializer = new MonitoredTripSequenceInitializer(jdbcTemplate);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSequenceIsRaisedAboveExistingIds() {
+        // Given trips created with IDENTITY ids up to 120 and a freshly created sequence table
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(120L);
+        when(jdbcTemplate.query(eq("SELECT next_val FROM monitored_trip_seq"), any(ResultSetExtractor.class))).thenReturn(1L);
+
+        // When
+        initializer.alignSequence();
+
+        // Then the next pooled block (next_val - 49 .. next_val) starts above 120
+        verify(jdbcTemplate).update("UPDATE monitored_trip_seq SET next_val = ? WHERE next_val < ?", 171L, 171L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSequenceAheadOfIdsIsLeftAlone() {
+        // Given a sequence already past the existing ids
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(120L);
+        when(jdbcTemplate.query(eq("SELECT next_val FROM monitored_trip_seq"), any(ResultSetExtractor.class))).thenReturn(500L);
+
+        // When
+        initializer.alignSequence();
+
+        // Then it is not touched
+        verify(jdbcTemplate, never()).update(eq("UPDATE monitored_trip_seq SET next_val = ? WHERE next_val < ?"), any(), any());
+        verify(jdbcTemplate, never()).update(eq("INSERT INTO monitored_trip_seq (next_val) VALUES (?)"), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testNativeSequenceWithExistingTripsFailsFast() {
+        // Given existing trips on a database where monitored_trip_seq is not a table
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(120L);
+        when(jdbcTemplate.query(eq("SELECT next_val FROM monitored_trip_seq"), any(ResultSetExtractor.class)))
+                .thenThrow(new BadSqlGrammarException("read sequence", "SELECT next_val FROM monitored_trip_seq",
+                        new SQLException("Table not found")));
+
+        // Then startup is refused rather than handing out colliding ids
+        assertThrows(IllegalStateException.class, initializer::alignSequence);
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.predictionservice;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.predictionservice.repository.MonitoringInstanceRepository;
+import org.example.predictionservice.repository.MonitoringLeaseRepository;
+import org.example.predictionservice.service.MonitoringLeaseCoordinator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs against the embedded H2 database; no test transaction, so every repository call commits as in production
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class MonitoringLeaseCoordinatorTest {
+
+    private static final int PARTITIONS = 8;
+
+    @Autowired
+    private MonitoringLeaseRepository leaseRepository;
+    @Autowired
+    private MonitoringInstanceRepository instanceRepository;
+
+    @BeforeEach
+    public void setUp() {
+        leaseRepository.deleteAll();
+        instanceRepository.deleteAll();
+    }
+
+    @Test
+    public void testPartitionsRebalanceWhenInstancesJoinAndLeave() {
+        // Given a first instance alone
+        Instant now = Instant.now();
+        MonitoringLeaseCoordinator first = coordinator();
+        first.heartbeat(now);
+        assertEquals(PARTITIONS, first.ownedPartitions().size());
+
+        // When a second instance joins, and both heartbeat twice
+        MonitoringLeaseCoordinator second = coordinator();
+        second.heartbeat(now.plusSeconds(1));
+        assertTrue(second.ownedPartitions().isEmpty());
+        first.heartbeat(now.plusSeconds(10));
+        second.heartbeat(now.plusSeconds(11));
+
+        // Then the partitions are split evenly, each one held by exactly one instance
+        assertEquals(PARTITIONS / 2, first.ownedPartitions().size());
+        assertEquals(PARTITIONS / 2, second.ownedPartitions().size());
+        Set<Integer> all = new HashSet<>(first.ownedPartitions());
+        all.addAll(second.ownedPartitions());
+        assertEquals(PARTITIONS, all.size());
+
+        // When the first instance stops and its leases expire (last renewal at +10s, 30s TTL)
+        second.heartbeat(now.plusSeconds(45));
+
+        // Then the second instance takes every partition over
+        assertEquals(PARTITIONS, second.ownedPartitions().size());
+    }
+
+    @Test
+    public void testUnexpiredLeaseCannotBeClaimed() {
+        // Given a partition leased to one instance
+        Instant now = Instant.now();
+        coordinator().heartbeat(now);
+
+        // When another instance tries to claim it before expiry, then after
+        int early = leaseRepository.claim(0, "other", now.plusSeconds(60), now.plusSeconds(5));
+        int late = leaseRepository.claim(0, "other", now.plusSeconds(60), now.plusSeconds(31));
+
+        // Then only the claim after expiry succeeds
+        assertEquals(0, early);
+        assertEquals(1, late);
+    }
+
+    private MonitoringLeaseCoordinator coordinator() {
+        return new MonitoringLeaseCoordinator(leaseRepository, instanceRepository, new SimpleMeterRegistry(),
+                PARTITIONS, 30000, "prediction-service");
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.predictionservice;
+
+import org.example.predictionservice.client.PayloadDecoder;
+import org.example.predictionservice.client.dto.HourlyForecast;
+import org.example.predictionservice.client.dto.IncidentData;
+import org.example.predictionservice.client.dto.RouteData;
+import org.example.predictionservice.client.dto.WeatherData;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PayloadDecoderTest {
+
+    @Test
+    public void testDecodeRouteSkipsUnknownFields() throws Exception {
+        // Given a traffic-service payload with alternatives and a partial geometry point
+        String json = "{\"durationMinutes\":24.5,\"distanceKm\":8.1,\"alternatives\":[{\"durationMinutes\":30}],"
+                + "\"riskLevel\":\"HIGH\",\"routeGeometry\":[{\"latitude\":33.5,\"longitude\":-7.6},{\"latitude\":1}]}";
+
+        // When
+        RouteData route = PayloadDecoder.decodeRoute(bytes(json));
+
+        // Then only the main route is read
+        assertEquals(24.5, route.durationMinutes());
+        assertEquals(8.1, route.distanceKm());
+        assertEquals("HIGH", route.riskLevel());
+        assertEquals(1, route.routeGeometry().size());
+        assertEquals(-7.6, route.routeGeometry().get(0).longitude());
+    }
+
+    @Test
+    public void testDecodeRouteWithoutDuration() throws Exception {
+        assertNull(PayloadDecoder.decodeRoute(bytes("{\"error\":\"Parsing failed\"}")));
+    }
+
+    @Test
+    public void testDecodeWeather() throws Exception {
+        // Given current conditions with an array timestamp and an ISO-timestamped hourly forecast
+        String json = "{\"current\":{\"temperature\":19.5,\"condition\":\"Rain\",\"timestamp\":[2024,1,2,8,0],\"hasFog\":true},"
+                + "\"hourlyForecast\":[{\"timestamp\":\"2024-01-02T09:00:00\",\"visibility\":600.0}],"
+                + "\"dailyForecast\":[{\"temperatureMax\":21.0}]}";
+
+        // When
+        WeatherData weather = PayloadDecoder.decodeWeather(bytes(json));
+
+        // Then missing fields hold the defaults
+        assertEquals("Rain", weather.current().condition());
+        assertEquals(LocalDateTime.of(2024, 1, 2, 8, 0), weather.current().timestamp());
+        assertTrue(weather.current().hasFog());
+        assertEquals(10000, weather.current().visibility());
+        assertEquals(1, weather.hourlyForecast().size());
+        assertEquals(600.0, weather.hourlyForecast().get(0).visibility());
+        assertEquals("Clear", weather.hourlyForecast().get(0).condition());
+
+        // And the forecast is indexed by epoch hour
+        int slot = weather.hourlyIndex().slot(HourlyForecast.epochHour(LocalDateTime.of(2024, 1, 2, 9, 0)));
+        assertEquals(600.0, weather.hourlyIndex().visibility(slot));
+        assertEquals(HourlyForecast.NO_FORECAST, weather.hourlyIndex().slot(HourlyForecast.epochHour(LocalDateTime.of(2024, 1, 2, 10, 0))));
+    }
+
+    @Test
+    public void testDecodeIncidents() throws Exception {
+        String json = "[{\"id\":1,\"type\":\"ACCIDENT\",\"severity\":\"HIGH\",\"latitude\":33.57,\"longitude\":-7.62},"
+                + "{\"id\":2,\"severity\":\"LOW\"}]";
+
+        List<IncidentData> incidents = PayloadDecoder.decodeIncidents(bytes(json));
+
+        assertEquals(2, incidents.size());
+        assertTrue(incidents.get(0).isMajor());
+        assertFalse(incidents.get(1).isMajor());
+        assertNull(PayloadDecoder.decodeIncidents(bytes("{\"status\":500}")));
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
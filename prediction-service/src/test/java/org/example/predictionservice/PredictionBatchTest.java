@@ -0,0 +1,156 @@
+package org.example.predictionservice;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.predictionservice.model.BatchPredictionResult;
+import org.example.predictionservice.model.PredictionRequest;
+import org.example.predictionservice.service.PredictionMetrics;
+import org.example.predictionservice.service.PredictionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PredictionBatchTest {
+
+    private static final String ROUTE_JSON = "{\"durationMinutes\":24.5,\"distanceKm\":8.1,\"trafficDelayMinutes\":3.2,"
+            + "\"riskLevel\":\"LOW\",\"routeGeometry\":[]}";
+    private static final String INCIDENTS_JSON = "[]";
+    private static final String WEATHER_JSON = "{\"current\":{\"temperature\":19.5,\"windSpeed\":12.0,\"windDirection\":240.0,"
+            + "\"condition\":\"Clear\",\"visibility\":10000.0,\"hasFog\":false,\"fogIntensity\":\"NONE\"},"
+            + "\"hourlyForecast\":[],\"dailyForecast\":[]}";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    private final AtomicInteger routeCalls = new AtomicInteger();
+    private final AtomicInteger routesInFlight = new AtomicInteger();
+    private final AtomicInteger maxRoutesInFlight = new AtomicInteger();
+    private final AtomicInteger incidentCalls = new AtomicInteger();
+    private final AtomicInteger weatherCalls = new AtomicInteger();
+    private volatile long routeLatencyMs = 0;
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private PredictionService predictionService(int routeParallelism, long batchBudgetMs) {
+        return PredictionServiceFixture.respondingWith(this::respond)
+                .registry(registry)
+                .routeParallelism(routeParallelism)
+                .batchBudgetMs(batchBudgetMs)
+                .build(executor);
+    }
+
+    private String respond(URI uri) {
+        String path = uri.getPath();
+        if (path.startsWith("/api/traffic/route")) {
+            routeCalls.incrementAndGet();
+            maxRoutesInFlight.accumulateAndGet(routesInFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(routeLatencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                routesInFlight.decrementAndGet();
+            }
+            return ROUTE_JSON;
+        }
+        if (path.startsWith("/api/meteo/live")) {
+            weatherCalls.incrementAndGet();
+            return WEATHER_JSON;
+        }
+        incidentCalls.incrementAndGet();
+        return INCIDENTS_JSON;
+    }
+
+    private PredictionRequest trip(String origin, String destination) {
+        return new PredictionRequest(origin, destination, null, "10:00", "driving");
+    }
+
+    // Stage timers are recorded when the futures complete, possibly just after the batch returned
+    private long stageCount(String stage, long expected) throws InterruptedException {
+        long count = 0;
+        for (int attempt = 0; attempt < 100 && count < expected; attempt++) {
+            count = registry.find("prediction.stage").tag("stage", stage).timers().stream()
+                    .mapToLong(Timer::count).sum();
+            if (count < expected) {
+                Thread.sleep(10);
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testBatchSharesIncidentAndWeatherCalls() throws Exception {
+        // Given four trips, three of them starting in the same 0.05 degree cell of Casablanca
+        PredictionService service = predictionService(8, 30000);
+        List<PredictionRequest> trips = List.of(
+                trip("maarif", "technopark"),
+                trip("racine", "casa port"),
+                trip("anfa", "medina"),
+                trip("rabat", "casablanca"));
+
+        // When they are predicted as one batch
+        List<BatchPredictionResult> results = service.predictBatch(trips);
+
+        // Then incidents are fetched once, weather once per cell and routes once per trip
+        assertEquals(4, results.size());
+        results.forEach(result -> assertEquals("OK", result.getStatus()));
+        assertEquals(1, incidentCalls.get());
+        assertEquals(2, weatherCalls.get());
+        assertEquals(4, routeCalls.get());
+
+        // And every trip records its fetch stages, as on the single-trip path
+        assertEquals(4, stageCount(PredictionMetrics.STAGE_ROUTE, 4));
+        assertEquals(4, stageCount(PredictionMetrics.STAGE_WEATHER, 4));
+        assertEquals(4, stageCount(PredictionMetrics.STAGE_INCIDENTS, 4));
+    }
+
+    @Test
+    public void testRouteCallsAreBoundedByParallelism() {
+        // Given slow routes and at most two route calls in flight
+        routeLatencyMs = 100;
+        PredictionService service = predictionService(2, 30000);
+        List<PredictionRequest> trips = List.of(
+                trip("maarif", "technopark"),
+                trip("maarif", "casa port"),
+                trip("maarif", "medina"),
+                trip("maarif", "oasis"),
+                trip("maarif", "corniche"),
+                trip("maarif", "bouskoura"));
+
+        // When the batch is predicted
+        List<BatchPredictionResult> results = service.predictBatch(trips);
+
+        // Then every route is fetched, never more than two at a time
+        results.forEach(result -> assertEquals("OK", result.getStatus()));
+        assertEquals(6, routeCalls.get());
+        assertTrue(maxRoutesInFlight.get() <= 2, "max routes in flight " + maxRoutesInFlight.get());
+    }
+
+    @Test
+    public void testBatchBudgetBoundsSlowRoutes() {
+        // Given routes slower than the whole batch budget
+        routeLatencyMs = 2000;
+        PredictionService service = predictionService(8, 300);
+
+        // When a batch is predicted
+        long start = System.nanoTime();
+        List<BatchPredictionResult> results = service.predictBatch(List.of(
+                trip("maarif", "technopark"),
+                trip("racine", "casa port")));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Then it returns within the budget, with routes replaced by their fallback
+        assertTrue(elapsedMs < 1500, "batch took " + elapsedMs + " ms");
+        results.forEach(result -> assertEquals("OK", result.getStatus()));
+    }
+}
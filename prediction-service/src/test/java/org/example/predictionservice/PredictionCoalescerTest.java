@@ -0,0 +1,79 @@
+package org.example.predictionservice;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.predictionservice.model.EnrichedPrediction;
+import org.example.predictionservice.model.PredictionRequest;
+import org.example.predictionservice.service.PredictionCoalescer;
+import org.example.predictionservice.service.PredictionService;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class PredictionCoalescerTest {
+
+    // Trip keys are built with the real normalization methods
+    private final PredictionService predictionService = mock(PredictionService.class, CALLS_REAL_METHODS);
+    private final PredictionCoalescer coalescer = new PredictionCoalescer(predictionService, new SimpleMeterRegistry(), 250, 1000);
+
+    @Test
+    public void testConcurrentIdenticalRequestsShareOneFetch() throws Exception {
+        // Given a downstream computation that stays in flight until released
+        AtomicInteger fetches = new AtomicInteger();
+        CompletableFuture<EnrichedPrediction> downstream = new CompletableFuture<>();
+        int callers = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When eight callers ask for the same trip at the same time, with different spellings
+        List<Future<CompletableFuture<EnrichedPrediction>>> calls = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            String origin = i % 2 == 0 ? "Maarif" : " maarif ";
+            calls.add(pool.submit(() -> {
+                start.await();
+                return coalescer.coalesce(new PredictionRequest(origin, "Technopark", "2024-01-02", "08:00", "DRIVING"),
+                        () -> {
+                            fetches.incrementAndGet();
+                            return downstream;
+                        });
+            }));
+        }
+        start.countDown();
+        List<CompletableFuture<EnrichedPrediction>> results = new ArrayList<>();
+        for (Future<CompletableFuture<EnrichedPrediction>> call : calls) {
+            results.add(call.get(5, TimeUnit.SECONDS));
+        }
+        downstream.complete(EnrichedPrediction.builder()
+                .origin("maarif")
+                .predictedDuration(24.0)
+                .explanationPoints(new ArrayList<>(List.of("Trafic fluide")))
+                .build());
+        pool.shutdown();
+
+        // Then the downstream computation ran once and every caller got its result
+        assertEquals(1, fetches.get());
+        for (CompletableFuture<EnrichedPrediction> result : results) {
+            assertEquals(24.0, result.get(5, TimeUnit.SECONDS).getPredictedDuration());
+        }
+
+        // And each caller got its own copy: changing one does not change the others
+        EnrichedPrediction first = results.get(0).join();
+        first.setPredictedDuration(99.0);
+        first.getExplanationPoints().add("Modifié");
+        EnrichedPrediction second = results.get(1).join();
+        assertNotSame(first, second);
+        assertEquals(24.0, second.getPredictedDuration());
+        assertEquals(List.of("Trafic fluide"), second.getExplanationPoints());
+        assertEquals(24.0, downstream.join().getPredictedDuration());
+    }
+}
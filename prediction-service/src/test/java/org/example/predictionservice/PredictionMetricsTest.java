@@ -0,0 +1,30 @@
+package org.example.predictionservice;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.predictionservice.service.PredictionMetrics;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PredictionMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final PredictionMetrics metrics = new PredictionMetrics(registry);
+
+    @Test
+    public void testUnknownModesShareOneSeries() {
+        // Given stages recorded for known modes and arbitrary client-supplied ones
+        long start = System.nanoTime();
+        metrics.recordStage(PredictionMetrics.STAGE_ROUTE, "driving", false, start);
+        metrics.recordStage(PredictionMetrics.STAGE_ROUTE, "hoverboard", false, start);
+        metrics.recordStage(PredictionMetrics.STAGE_ROUTE, "bike-" + start, false, start);
+        metrics.fallbackUsed("weather", "unicycle");
+        metrics.fallbackUsed("weather", null);
+
+        // Then unknown modes are tagged "other", so the number of series stays bounded
+        assertEquals(2, registry.find("prediction.stage").timers().size());
+        assertEquals(1, registry.get("prediction.stage").tag("mode", "driving").timer().count());
+        assertEquals(2, registry.get("prediction.stage").tag("mode", "other").timer().count());
+        assertEquals(2.0, registry.get("prediction.fallback").tag("mode", "other").counter().count());
+    }
+}
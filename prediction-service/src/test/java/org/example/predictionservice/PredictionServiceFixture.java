@@ -0,0 +1,97 @@
+package org.example.predictionservice;
+
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.predictionservice.service.DistanceMatrix;
+import org.example.predictionservice.service.DownstreamResilience;
+import org.example.predictionservice.service.LocationGazetteer;
+import org.example.predictionservice.service.PredictionMetrics;
+import org.example.predictionservice.service.PredictionService;
+import org.example.predictionservice.service.RouteCache;
+import org.example.predictionservice.service.WeatherCache;
+import org.example.predictionservice.service.WeatherImpactService;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+/**
+ * PredictionService wired with its real components, its downstream calls answered in memory.
+ * <p>
+ * Every traffic, incident and weather request is answered with the JSON body returned for its URI, so
+ * decoding is exercised and the responder can count or delay calls. Also used by the benchmarks module,
+ * through the prediction-service test jar.
+ */
+public final class PredictionServiceFixture {
+
+    private final Function<URI, String> responses;
+    private MeterRegistry registry = new SimpleMeterRegistry();
+    private long cacheSize = 1000;
+    private int routeParallelism = 8;
+    private long batchBudgetMs = 30000;
+
+    private PredictionServiceFixture(Function<URI, String> responses) {
+        this.responses = responses;
+    }
+
+    /**
+     * Fixture answering each downstream request with the body returned for its URI
+     */
+    public static PredictionServiceFixture respondingWith(Function<URI, String> responses) {
+        return new PredictionServiceFixture(responses);
+    }
+
+    public PredictionServiceFixture registry(MeterRegistry registry) { this.registry = registry; return this; }
+
+    /**
+     * Size of the route and weather caches; 0 keeps nothing, so every call goes downstream
+     */
+    public PredictionServiceFixture cacheSize(long cacheSize) { this.cacheSize = cacheSize; return this; }
+    public PredictionServiceFixture routeParallelism(int routeParallelism) { this.routeParallelism = routeParallelism; return this; }
+    public PredictionServiceFixture batchBudgetMs(long batchBudgetMs) { this.batchBudgetMs = batchBudgetMs; return this; }
+
+    public PredictionService build(ExecutorService executor) {
+        LocationGazetteer gazetteer = new LocationGazetteer(new ClassPathResource("gazetteer/locations.csv"));
+        DownstreamResilience resilience = new DownstreamResilience(CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults());
+        WeatherCache weatherCache = new WeatherCache(webClient(), registry, resilience, 0.05, 300, 900, cacheSize, 2500);
+        RouteCache routeCache = new RouteCache(registry, 15, 120, 600, cacheSize);
+        // KafkaTemplate is only used by the scheduled/legacy paths
+        return new PredictionService(null, restTemplate(),
+                new WeatherImpactService(new ClassPathResource("weather/impact-calibration.properties")),
+                weatherCache, routeCache, gazetteer, new DistanceMatrix(gazetteer, new ClassPathResource("gazetteer/distances.csv")),
+                new PredictionMetrics(registry), resilience, executor, 2500, 4000, routeParallelism, batchBudgetMs);
+    }
+
+    private RestTemplate restTemplate() {
+        ClientHttpRequestFactory factory = (URI uri, HttpMethod method) -> {
+            MockClientHttpRequest request = new MockClientHttpRequest(method, uri);
+            MockClientHttpResponse response = new MockClientHttpResponse(
+                    responses.apply(uri).getBytes(StandardCharsets.UTF_8), HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            request.setResponse(response);
+            return request;
+        };
+        return new RestTemplate(factory);
+    }
+
+    private WebClient.Builder webClient() {
+        return WebClient.builder().exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                .body(responses.apply(request.url()))
+                .build()));
+    }
+}
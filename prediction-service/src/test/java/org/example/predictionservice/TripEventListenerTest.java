@@ -0,0 +1,48 @@
+package org.example.predictionservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.predictionservice.entity.MonitoredTrip;
+import org.example.predictionservice.service.CorridorIndex;
+import org.example.predictionservice.service.LocationGazetteer;
+import org.example.predictionservice.service.TripEventListener;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TripEventListenerTest {
+
+    private static final String CLEAR = "{\"condition\":\"SUNNY\",\"latitude\":33.5731,\"longitude\":-7.5898}";
+    private static final String FOG = "{\"condition\":\"FOG\",\"latitude\":33.5731,\"longitude\":-7.5898}";
+
+    private final CorridorIndex corridorIndex = new CorridorIndex(
+            new LocationGazetteer(new ClassPathResource("gazetteer/locations.csv")), 2.0);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final TripEventListener listener = new TripEventListener(corridorIndex, new ObjectMapper(), registry, 25);
+
+    @Test
+    public void testRepeatedWeatherReportDoesNotExpediteTrips() {
+        // Given a monitored trip in Casablanca
+        corridorIndex.add(new MonitoredTrip(1L, "Maarif", "Technopark", 20, 20, "u1", true));
+
+        // When the same weather is reported every minute
+        listener.onWeatherUpdate(CLEAR);
+        listener.onWeatherUpdate(CLEAR);
+
+        // Then no corridor is marked
+        assertFalse(corridorIndex.hasAffected());
+
+        // And a change of condition marks the corridors around the report
+        listener.onWeatherUpdate(FOG);
+        assertEquals(Set.of(1L), corridorIndex.drainAffectedTrips());
+
+        // And every report is counted
+        assertEquals(2, registry.get("monitoring.events").tag("topic", "weather-updates").tag("matched", "false")
+                .counter().count());
+        assertEquals(1, registry.get("monitoring.events").tag("topic", "weather-updates").tag("matched", "true")
+                .counter().count());
+    }
+}
@@ -0,0 +1,286 @@
+package org.example.predictionservice;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.predictionservice.entity.MonitoredTrip;
+import org.example.predictionservice.model.EnrichedPrediction;
+import org.example.predictionservice.model.PredictionRequest;
+import org.example.predictionservice.repository.MonitoredTripRepository;
+import org.example.predictionservice.service.CorridorIndex;
+import org.example.predictionservice.service.LocationGazetteer;
+import org.example.predictionservice.service.MonitoringLeaseCoordinator;
+import org.example.predictionservice.service.PredictionService;
+import org.example.predictionservice.service.TripMonitoringService;
+import org.example.predictionservice.service.TripSchedule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class TripMonitoringServiceTest {
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Object> kafkaTemplate = mock(KafkaTemplate.class);
+    private final MonitoredTripRepository tripRepository = mock(MonitoredTripRepository.class);
+    private final PredictionService predictionService = mock(PredictionService.class);
+    private final MonitoringLeaseCoordinator leases = mock(MonitoringLeaseCoordinator.class);
+    private final CorridorIndex corridorIndex = new CorridorIndex(
+            new LocationGazetteer(new ClassPathResource("gazetteer/locations.csv")), 2.0);
+    private final TripSchedule schedule = new TripSchedule(30000, 900000, 2.0, 6000);
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    // Direct executor: shards run on the calling thread, so a tick is complete when checkDueTrips returns
+    private final TripMonitoringService monitoringService = new TripMonitoringService(kafkaTemplate, tripRepository,
+            predictionService, leases, corridorIndex, schedule, Runnable::run, transactionTemplate, registry, 2, 50000, 2, 50);
+
+    @BeforeEach
+    public void setUp() {
+        // Single instance: all partitions are leased to it
+        when(leases.partitionCount()).thenReturn(4);
+        when(leases.ownedPartitions()).thenReturn(Set.of(0, 1, 2, 3));
+    }
+
+    @Test
+    public void testOnePredictionPerCorridor() {
+        // Given three subscribers on Maarif -> Technopark (spelled differently) and one on another corridor,
+        // found by a sweep reading pages of two trips
+        List<MonitoredTrip> trips = List.of(
+                new MonitoredTrip(1L, "Maarif", "Technopark", 20, 20, "u1", true),
+                new MonitoredTrip(2L, "maarif ", "TECHNOPARK", 20, 30, "u2", true),
+                new MonitoredTrip(3L, "Maarif", "Technopark", 20, 22, "u3", true),
+                new MonitoredTrip(4L, "Casa Port", "Ain Diab", 15, 15, "u4", true));
+        when(tripRepository.findByIsActiveTrueAndIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class))).thenReturn(trips.subList(0, 2));
+        when(tripRepository.findByIsActiveTrueAndIdGreaterThanOrderByIdAsc(eq(2L), any(Limit.class))).thenReturn(trips.subList(2, 4));
+        when(tripRepository.findAllById(any())).thenReturn(trips);
+        when(predictionService.predictEnriched(any(PredictionRequest.class)))
+                .thenReturn(EnrichedPrediction.builder().predictedDuration(31).build());
+
+        // When the sweep runs, then the next tick
+        monitoringService.checkTrips();
+        verify(predictionService, never()).predictEnriched(any(PredictionRequest.class));
+        assertEquals(4, schedule.size());
+        monitoringService.checkDueTrips();
+
+        // Then each corridor is predicted once
+        verify(predictionService, times(2)).predictEnriched(any(PredictionRequest.class));
+        verify(predictionService).predictEnriched(argThat(r -> "Maarif".equals(r.getOrigin())));
+        verify(predictionService).predictEnriched(argThat(r -> "Casa Port".equals(r.getOrigin())));
+
+        // And each trip is checked against the shared result (trip 2 changed by only 1 min)
+        verify(kafkaTemplate, times(3)).send(eq("trip-updates"), any());
+    }
+
+    @Test
+    public void testPermitCoversAllDueTripsOfCorridor() {
+        // Given one prediction per second, five due trips on Maarif -> Technopark and one, due later, elsewhere
+        TripSchedule oneCorridorPerTick = new TripSchedule(30000, 900000, 2.0, 60);
+        TripMonitoringService service = new TripMonitoringService(kafkaTemplate, tripRepository, predictionService,
+                leases, corridorIndex, oneCorridorPerTick, Runnable::run, transactionTemplate, registry, 2, 50000, 500, 50);
+        Instant now = Instant.now();
+        List<MonitoredTrip> trips = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            trips.add(new MonitoredTrip(id, "Maarif", "Technopark", 20, 20, "u" + id, true));
+        }
+        trips.add(new MonitoredTrip(6L, "Casa Port", "Ain Diab", 15, 15, "u6", true));
+        for (MonitoredTrip trip : trips) {
+            corridorIndex.add(trip);
+            oneCorridorPerTick.track(trip.getId(), null, trip.getId() <= 5 ? now.minusSeconds(1) : now);
+        }
+        when(tripRepository.findAllById(any())).thenAnswer(invocation -> {
+            Iterable<Long> ids = invocation.getArgument(0);
+            Set<Long> wanted = new HashSet<>();
+            ids.forEach(wanted::add);
+            return trips.stream().filter(trip -> wanted.contains(trip.getId())).toList();
+        });
+        when(predictionService.predictEnriched(any(PredictionRequest.class)))
+                .thenReturn(EnrichedPrediction.builder().predictedDuration(31).build());
+
+        // When one tick runs
+        service.checkDueTrips();
+
+        // Then the single permit covers every trip of the corridor, and the other corridor waits
+        verify(predictionService, times(1)).predictEnriched(argThat(r -> "Maarif".equals(r.getOrigin())));
+        verify(kafkaTemplate, times(5)).send(eq("trip-updates"), any());
+        assertFalse(oneCorridorPerTick.nextCheck(6L).isAfter(now));
+    }
+
+    @Test
+    public void testChangedTripsAreSavedOncePerTick() {
+        // Given two due trips that both change significantly
+        Instant now = Instant.now();
+        schedule.track(1L, null, now);
+        schedule.track(3L, null, now);
+        MonitoredTrip managed1 = new MonitoredTrip(1L, "Maarif", "Technopark", 20, 20, "u1", true);
+        MonitoredTrip managed3 = new MonitoredTrip(3L, "Casa Port", "Ain Diab", 15, 15, "u3", true);
+        when(tripRepository.findAllById(any())).thenReturn(
+                List.of(new MonitoredTrip(1L, "Maarif", "Technopark", 20, 20, "u1", true),
+                        new MonitoredTrip(3L, "Casa Port", "Ain Diab", 15, 15, "u3", true)),
+                List.of(managed1, managed3));
+        when(predictionService.predictEnriched(any(PredictionRequest.class)))
+                .thenReturn(EnrichedPrediction.builder().predictedDuration(31).build());
+
+        // When
+        monitoringService.checkDueTrips();
+
+        // Then the changed trips are loaded once and updated in a single transaction, with no per-trip save
+        // (due trips are looked up as a list, changed ones as a set)
+        verify(tripRepository).findAllById(argThat(ids -> ids instanceof Set && ids.equals(Set.of(1L, 3L))));
+        verify(tripRepository, never()).save(any(MonitoredTrip.class));
+        assertEquals(31, managed1.getLastDuration());
+        assertEquals(31, managed3.getLastDuration());
+        // Due trip lookup, changed trip lookup and one update batch
+        assertEquals(3.0, registry.get("monitoring.cycle.db.round-trips").summary().totalAmount());
+    }
+
+    @Test
+    public void testOnlyLeasedPartitionsAreScheduled() {
+        // Given an instance holding partitions 1 and 3 of 4
+        when(leases.ownedPartitions()).thenReturn(Set.of(1, 3));
+        when(tripRepository.findActivePageInPartitions(eq(0L), eq(4L), any(), any())).thenReturn(List.of(
+                new MonitoredTrip(1L, "Maarif", "Technopark", 20, 20, "u1", true)));
+
+        // When
+        monitoringService.checkTrips();
+
+        // Then only the trips of those partitions are read
+        verify(tripRepository).findActivePageInPartitions(eq(0L), eq(4L),
+                argThat(partitions -> Set.copyOf(partitions).equals(Set.of(1L, 3L))), any());
+        verify(tripRepository, never()).findByIsActiveTrueAndIdGreaterThanOrderByIdAsc(any(), any());
+        assertEquals(1, schedule.size());
+    }
+
+    @Test
+    public void testNothingCheckedWithoutLease() {
+        // Given an instance that has not leased any partition yet, with a due trip left from before
+        when(leases.ownedPartitions()).thenReturn(Set.of());
+        schedule.track(1L, null, Instant.now());
+
+        // When
+        monitoringService.checkTrips();
+        monitoringService.checkDueTrips();
+
+        // Then no trip is read
+        verifyNoInteractions(tripRepository, predictionService);
+    }
+
+    @Test
+    public void testEventRechecksOnlyAffectedCorridor() {
+        // Given two recently checked trips and an incident reported at Technopark
+        Instant now = Instant.now();
+        MonitoredTrip trip1 = new MonitoredTrip(1L, "Maarif", "Technopark", 20, 20, "u1", true);
+        MonitoredTrip trip2 = new MonitoredTrip(2L, "Casa Port", "Ain Diab", 15, 15, "u2", true);
+        for (MonitoredTrip trip : List.of(trip1, trip2)) {
+            corridorIndex.add(trip);
+            schedule.track(trip.getId(), null, now);
+            schedule.recordCheck(trip.getId(), false, now);
+        }
+        assertEquals(1, corridorIndex.markAffected(33.5167, -7.6500, 0));
+        when(tripRepository.findAllById(any())).thenReturn(List.of(trip1));
+        when(predictionService.predictEnriched(any(PredictionRequest.class)))
+                .thenReturn(EnrichedPrediction.builder().predictedDuration(31).build());
+
+        // When
+        monitoringService.checkDueTrips();
+
+        // Then only the Maarif -> Technopark trip is re-evaluated, ahead of its schedule
+        verify(tripRepository).findAllById(List.of(1L));
+        verify(predictionService, times(1)).predictEnriched(argThat(r -> "Maarif".equals(r.getOrigin())));
+        verify(kafkaTemplate, times(1)).send(eq("trip-updates"), any());
+        assertFalse(corridorIndex.hasAffected());
+    }
+
+    @Test
+    public void testTripsAfterDeadlineAreDeferred() {
+        // Given a cycle budget that is already exhausted
+        TripMonitoringService service = new TripMonitoringService(kafkaTemplate, tripRepository,
+                predictionService, leases, corridorIndex, schedule, Runnable::run, transactionTemplate, registry, 2, -1, 500, 50);
+        when(tripRepository.countByIsActiveTrueAndIdGreaterThan(0L)).thenReturn(2L);
+
+        // When
+        service.checkTrips();
+
+        // Then no page is read and all active trips are left for the next sweep
+        verify(tripRepository, never()).findByIsActiveTrueAndIdGreaterThanOrderByIdAsc(any(), any());
+        verify(predictionService, never()).predictEnriched(any(PredictionRequest.class));
+        assertEquals(2.0, registry.get("monitoring.trips.skipped").counter().count());
+        assertEquals(1, registry.get("monitoring.cycle.duration").timer().count());
+    }
+
+    @Test
+    public void testTripsSkippedByTickAreRescheduledImmediately() {
+        // Given two due trips and a tick budget that is already exhausted
+        TripMonitoringService service = new TripMonitoringService(kafkaTemplate, tripRepository,
+                predictionService, leases, corridorIndex, schedule, Runnable::run, transactionTemplate, registry, 2, -1, 500, 50);
+        Instant now = Instant.now();
+        schedule.track(1L, null, now);
+        schedule.track(2L, null, now);
+        when(tripRepository.findAllById(any())).thenReturn(List.of(
+                new MonitoredTrip(1L, "Maarif", "Technopark", 20, 20, "u1", true),
+                new MonitoredTrip(2L, "Casa Port", "Ain Diab", 15, 15, "u2", true)));
+
+        // When the tick runs
+        service.checkDueTrips();
+
+        // Then neither trip is predicted, both are counted as skipped and due again at the next tick
+        verify(predictionService, never()).predictEnriched(any(PredictionRequest.class));
+        assertEquals(2.0, registry.get("monitoring.trips.skipped").counter().count());
+        Instant nextTick = Instant.now();
+        assertFalse(schedule.nextCheck(1L).isAfter(nextTick));
+        assertFalse(schedule.nextCheck(2L).isAfter(nextTick));
+    }
+
+    @Test
+    public void testSweepKeepsTripsCreatedWhileItRuns() {
+        // Given a trip created on this instance while the sweep is reading the trips
+        when(tripRepository.findByIsActiveTrueAndIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class))).thenAnswer(invocation -> {
+            MonitoredTrip created = new MonitoredTrip(7L, "Maarif", "Technopark", 20, 20, "u7", true);
+            corridorIndex.add(created);
+            schedule.track(7L, null, Instant.now());
+            return List.of();
+        });
+
+        // When the sweep completes without having seen it
+        monitoringService.checkTrips();
+
+        // Then it is still scheduled and indexed
+        assertNotNull(schedule.nextCheck(7L));
+        assertNotEquals(7L, corridorIndex.corridorKey(7L));
+    }
+
+    @Test
+    public void testNewTripsArePickedUpBetweenSweeps() {
+        // Given a sweep that saw trip 1
+        MonitoredTrip first = new MonitoredTrip(1L, "Maarif", "Technopark", 20, 20, "u1", true);
+        MonitoredTrip created = new MonitoredTrip(3L, "Casa Port", "Ain Diab", 15, 15, "u3", true);
+        when(tripRepository.findByIsActiveTrueAndIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class)))
+                .thenReturn(List.of(first))
+                .thenReturn(List.of(first, created));
+        monitoringService.checkTrips();
+        schedule.recordCheck(1L, false, Instant.now());
+        Instant firstCheck = schedule.nextCheck(1L);
+
+        // When another instance creates trip 3 and the new trip poll runs
+        monitoringService.pickUpNewTrips();
+
+        // Then trip 3 is scheduled without waiting for the next sweep, and trip 1 is left as it was
+        assertNotNull(schedule.nextCheck(3L));
+        assertEquals(firstCheck, schedule.nextCheck(1L));
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.predictionservice;
+
+import org.example.predictionservice.service.TripSchedule;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TripScheduleTest {
+
+    private final Instant t0 = Instant.parse("2024-01-02T08:00:00Z");
+    // 30 s to 15 min intervals, doubled after each calm check, at most 60 predictions per minute
+    private final TripSchedule schedule = new TripSchedule(30000, 900000, 2.0, 60);
+
+    @Test
+    public void testIntervalBacksOffAndResets() {
+        // Given a new trip, due immediately
+        schedule.track(1L, null, t0);
+        assertEquals(List.of(1L), schedule.pollDue(t0, 10));
+
+        // When checks show no change, then a significant one
+        schedule.recordCheck(1L, false, t0);
+        assertEquals(t0.plusSeconds(60), schedule.nextCheck(1L));
+        schedule.recordCheck(1L, false, t0.plusSeconds(60));
+        assertEquals(t0.plusSeconds(180), schedule.nextCheck(1L));
+        schedule.recordCheck(1L, true, t0.plusSeconds(180));
+
+        // Then the interval doubles while calm and drops back to the minimum after the change
+        assertEquals(t0.plusSeconds(210), schedule.nextCheck(1L));
+    }
+
+    @Test
+    public void testIntervalShrinksNearDeparture() {
+        // Given a trip departing in 10 minutes that has been calm for a while
+        schedule.track(1L, t0.plusSeconds(600), t0);
+        schedule.recordCheck(1L, false, t0);
+
+        // When it is checked again 200 s before departure (the calm interval would now be 120 s)
+        schedule.recordCheck(1L, false, t0.plusSeconds(400));
+
+        // Then its next check comes within a quarter of the remaining time
+        assertEquals(t0.plusSeconds(450), schedule.nextCheck(1L));
+    }
+
+    @Test
+    public void testIntervalBacksOffAfterDeparture() {
+        // Given a trip whose departure passed ten minutes ago
+        schedule.track(1L, t0.minusSeconds(600), t0);
+
+        // When checks show no change
+        schedule.recordCheck(1L, false, t0);
+        schedule.recordCheck(1L, false, t0.plusSeconds(60));
+
+        // Then the interval doubles instead of staying at the minimum
+        assertEquals(t0.plusSeconds(180), schedule.nextCheck(1L));
+    }
+
+    @Test
+    public void testRetainOnlyKeepsTripsTrackedSince() {
+        // Given a trip tracked before a sweep and one tracked while it ran
+        schedule.track(1L, null, t0);
+        schedule.track(2L, null, t0.plusSeconds(10));
+
+        // When the sweep, started at t0 + 5 s, saw neither
+        Set<Long> retained = schedule.retainOnly(Set.of(), t0.plusSeconds(5));
+
+        // Then only the trip tracked during the sweep is kept
+        assertEquals(Set.of(2L), retained);
+        assertNull(schedule.nextCheck(1L));
+    }
+
+    @Test
+    public void testPredictionRateIsCapped() {
+        // Given one prediction per second for the whole cluster, and two due trips
+        schedule.track(1L, null, t0.minusSeconds(1));
+        schedule.track(2L, null, t0);
+
+        // When the instance holding all partitions uses its permit
+        int permits = schedule.availablePredictions(1.0, t0);
+        assertEquals(1, permits);
+        assertEquals(List.of(1L), schedule.pollDue(t0, permits));
+        schedule.consumePredictions(1);
+
+        // Then the second trip waits for the next second, and stays overdue until then
+        assertEquals(0, schedule.availablePredictions(1.0, t0.plusMillis(500)));
+        assertEquals(1, schedule.overdue(t0.plusMillis(500)));
+        assertEquals(1, schedule.availablePredictions(1.0, t0.plusSeconds(1)));
+    }
+}
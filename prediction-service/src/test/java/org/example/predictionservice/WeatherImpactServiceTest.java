@@ -0,0 +1,75 @@
+package org.example.predictionservice;
+
+import org.example.predictionservice.client.dto.WeatherConditions;
+import org.example.predictionservice.client.dto.WeatherData;
+import org.example.predictionservice.model.WeatherImpactAnalysis;
+import org.example.predictionservice.service.WeatherImpactService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WeatherImpactServiceTest {
+
+    private static WeatherData current(String condition, double visibility, double windSpeed, boolean hasFog) {
+        return new WeatherData(new WeatherConditions(null, condition, 12, visibility, windSpeed, hasFog), List.of());
+    }
+
+    @Test
+    public void testImpactCombinesPrecipitationVisibilityAndWind() {
+        // Given the shipped calibration
+        WeatherImpactService service = new WeatherImpactService(new ClassPathResource("weather/impact-calibration.properties"));
+
+        // When it rains with 500 m visibility and 70 km/h wind
+        WeatherImpactAnalysis analysis = service.analyzeImpact(current("Light Rain", 500, 70, false), null);
+
+        // Then each rule contributes: 0.10 + 0.10 + (0.05 + 0.02)
+        assertEquals(0.27, analysis.getImpactModifier(), 1e-9);
+        assertEquals(27, analysis.getImpactPercentage());
+        assertEquals("ÉLEVÉ", analysis.getImpactLevel());
+        assertEquals("Pluie (adhérence réduite). Visibilité faible (0.5km). Vent fort (70 km/h).", analysis.getExplanation());
+
+        // And clear weather has no impact
+        WeatherImpactAnalysis clear = service.analyzeImpact(current("Clear", 10000, 10, false), null);
+        assertEquals(0, clear.getImpactModifier());
+        assertEquals("AUCUN", clear.getImpactLevel());
+    }
+
+    @Test
+    public void testVisibilityJustUnderThresholdIsLow() {
+        // Given the shipped calibration (low visibility below 1000 m)
+        WeatherImpactService service = new WeatherImpactService(new ClassPathResource("weather/impact-calibration.properties"));
+
+        // When visibility is 950 m
+        WeatherImpactAnalysis analysis = service.analyzeImpact(current("Clear", 950, 10, false), null);
+
+        // Then it falls in the 900 m bucket: a small impact, consistent with the explanation
+        assertEquals(0.02, analysis.getImpactModifier(), 1e-9);
+        assertEquals("FAIBLE", analysis.getImpactLevel());
+        assertEquals("Visibilité faible (0.9km).", analysis.getExplanation());
+    }
+
+    @Test
+    public void testCalibrationIsReloadedWhenTheFileChanges(@TempDir Path dir) throws Exception {
+        // Given a calibration file in use
+        Path file = dir.resolve("impact-calibration.properties");
+        Files.writeString(file, "rain.modifier=0.10\n");
+        WeatherImpactService service = new WeatherImpactService(new FileSystemResource(file));
+        assertEquals(0.10, service.analyzeImpact(current("Rain", 10000, 0, false), null).getImpactModifier(), 1e-9);
+
+        // When the file is recalibrated
+        Files.writeString(file, "rain.modifier=0.20\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 60000));
+        service.reloadCalibration();
+
+        // Then new analyses use the new calibration without a restart
+        assertEquals(0.20, service.analyzeImpact(current("Rain", 10000, 0, false), null).getImpactModifier(), 1e-9);
+    }
+}
@@ -42,6 +42,8 @@ public class TrafficServiceImpl implements TrafficService {
         String json = tomTomClient.getTomTomTraffic(latitude, longitude);
         Traffic t = new Traffic();
         t.setSource("TomTom API");
+        t.setLatitude(latitude);
+        t.setLongitude(longitude);
         t.setRawResponse(json);
 
         try {